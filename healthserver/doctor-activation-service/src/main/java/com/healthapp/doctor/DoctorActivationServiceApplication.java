@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Doctor Activation Service
@@ -24,6 +25,7 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
 @EnableDiscoveryClient
 @EnableFeignClients  // Active Feign pour appeler les autres services
 @EnableMongoAuditing
+@EnableScheduling  // Réconciliation des statistiques docteur
 public class DoctorActivationServiceApplication {
 
     public static void main(String[] args) {
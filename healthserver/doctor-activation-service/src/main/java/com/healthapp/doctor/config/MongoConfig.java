@@ -1,13 +1,65 @@
 package com.healthapp.doctor.config;
 
 
+import com.healthapp.doctor.entity.Appointment;
+import com.healthapp.doctor.entity.DoctorPatient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.Scheduled;
 
+@Slf4j
 @Configuration
 @EnableMongoAuditing  // ✅ IMPORTANT: Active les timestamps
 @EnableMongoRepositories(basePackages = "com.healthapp.doctor.repository")
+@RequiredArgsConstructor
 public class MongoConfig {
     // MongoDB configuration is auto-configured by Spring Boot
-}
\ No newline at end of file
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean indexesReady;
+
+    /**
+     * ✅ Crée les index déclarés sur Appointment et DoctorPatient (unicité des patients d'un docteur)
+     * (spring.data.mongodb.auto-index-creation est désactivé par défaut)
+     * ✅ MongoDB indisponible au démarrage : erreur journalisée, nouvel essai par retryIndexes
+     * (sans index, la pagination par curseur ferait des COLLSCAN + SORT en mémoire)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndexes() {
+        try {
+            ensureIndexes(mongoTemplate, Appointment.class);
+            ensureIndexes(mongoTemplate, DoctorPatient.class);
+            indexesReady = true;
+            log.info("✅ Index appointments / doctor_patients vérifiés");
+        } catch (RuntimeException e) {
+            log.error("❌ Impossible de créer les index appointments (nouvel essai planifié): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * ✅ Nouvel essai tant que les index n'ont pas pu être vérifiés
+     */
+    @Scheduled(fixedDelayString = "${doctor.mongo.index-retry-ms:30000}",
+            initialDelayString = "${doctor.mongo.index-retry-ms:30000}")
+    public void retryIndexes() {
+        if (!indexesReady) {
+            initIndexes();
+        }
+    }
+
+    public static void ensureIndexes(MongoTemplate mongoTemplate, Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity)
+                .forEach(indexOps::ensureIndex);
+    }
+}
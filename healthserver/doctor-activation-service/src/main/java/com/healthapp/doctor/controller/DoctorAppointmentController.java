@@ -1,7 +1,9 @@
 package com.healthapp.doctor.controller;
 
+import com.healthapp.doctor.dto.request.AppointmentPageRequest;
 import com.healthapp.doctor.dto.request.AppointmentResponseRequest;
 import com.healthapp.doctor.dto.response.AppointmentResponse;
+import com.healthapp.doctor.dto.response.CursorPage;
 import com.healthapp.doctor.dto.response.DoctorStatsResponse;
 import com.healthapp.doctor.dto.response.PatientInfoResponse;
 import com.healthapp.doctor.entity.Doctor;
@@ -9,12 +11,15 @@ import com.healthapp.doctor.repository.DoctorRepository;
 import com.healthapp.doctor.service.AppointmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +38,9 @@ import java.util.Map;
 @Slf4j
 public class DoctorAppointmentController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AppointmentService appointmentService;
     private final DoctorRepository doctorRepository;
 
@@ -119,10 +127,18 @@ public class DoctorAppointmentController {
     }
 
     /**
-     * Obtenir tous les rendez-vous du médecin connecté
+     * Obtenir les rendez-vous du médecin connecté, du plus récent au plus ancien
+     * (paginé par curseur si limit ou cursor est fourni : la page suivante s'obtient avec l'en-tête X-Next-Cursor ;
+     * sans l'un ni l'autre, liste complète)
      */
     @GetMapping
-    public ResponseEntity<List<AppointmentResponse>> getMyAppointments(Authentication auth) {
+    public ResponseEntity<List<AppointmentResponse>> getMyAppointments(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth) {
         log.info("========================================");
         log.info("📅 GET ALL APPOINTMENTS REQUEST");
         log.info("========================================");
@@ -130,10 +146,19 @@ public class DoctorAppointmentController {
         Doctor doctor = getAuthenticatedDoctor(auth);
         log.info("📋 Fetching all appointments for doctor: {}", doctor.getFullName());
 
-        List<AppointmentResponse> appointments = appointmentService.getDoctorAppointments(doctor.getId());
+        CursorPage<AppointmentResponse> appointments = appointmentService.getDoctorAppointments(doctor.getId(),
+                AppointmentPageRequest.builder().status(status).from(from).to(to).cursor(cursor).limit(limit).build());
 
-        log.info("✅ Found {} appointments", appointments.size());
-        return ResponseEntity.ok(appointments);
+        log.info("✅ Found {} appointments", appointments.getContent().size());
+        return withNextCursor(appointments);
+    }
+
+    static <T> ResponseEntity<List<T>> withNextCursor(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 
     /**
@@ -228,9 +253,13 @@ public class DoctorAppointmentController {
 
     /**
      * Obtenir la liste des patients du médecin connecté
+     * (triée par dernière visite ; paginée si size est fourni, nombre total de patients dans l'en-tête X-Total-Count)
      */
     @GetMapping("/patients")
-    public ResponseEntity<List<PatientInfoResponse>> getMyPatients(Authentication auth) {
+    public ResponseEntity<List<PatientInfoResponse>> getMyPatients(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            Authentication auth) {
         log.info("========================================");
         log.info("👥 GET PATIENTS LIST REQUEST");
         log.info("========================================");
@@ -238,10 +267,13 @@ public class DoctorAppointmentController {
         Doctor doctor = getAuthenticatedDoctor(auth);
         log.info("👥 Fetching patients list for doctor: {}", doctor.getFullName());
 
-        List<PatientInfoResponse> patients = appointmentService.getDoctorPatients(doctor.getId());
+        Page<PatientInfoResponse> patients = appointmentService.getDoctorPatients(
+                doctor.getId(), Math.max(page, 0), size == null ? null : Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
 
-        log.info("✅ Found {} patients", patients.size());
-        return ResponseEntity.ok(patients);
+        log.info("✅ Found {} patients", patients.getTotalElements());
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(patients.getTotalElements()))
+                .body(patients.getContent());
     }
 
     /**
@@ -256,7 +288,7 @@ public class DoctorAppointmentController {
         Doctor doctor = getAuthenticatedDoctor(auth);
         log.info("📊 Generating dashboard stats for doctor: {}", doctor.getFullName());
 
-        DoctorStatsResponse stats = appointmentService.getDoctorStats(doctor.getId());
+        DoctorStatsResponse stats = appointmentService.getDoctorStats(doctor);
 
         log.info("✅ Dashboard stats generated successfully");
         return ResponseEntity.ok(stats);
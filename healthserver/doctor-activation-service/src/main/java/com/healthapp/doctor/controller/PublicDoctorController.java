@@ -1,11 +1,14 @@
 package com.healthapp.doctor.controller;
 
+import com.healthapp.doctor.dto.request.AppointmentPageRequest;
 import com.healthapp.doctor.dto.response.AppointmentResponse;
+import com.healthapp.doctor.dto.response.CursorPage;
 import com.healthapp.doctor.entity.Doctor;
 import com.healthapp.doctor.repository.DoctorRepository;
 import com.healthapp.doctor.service.AppointmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -111,17 +114,24 @@ public class PublicDoctorController {
     }
 
     /**
-     * Récupérer les rendez-vous d'un patient (via le service utilisateur)
+     * Récupérer les rendez-vous d'un patient (via le service utilisateur), du plus récent au plus ancien
+     * (paginé par curseur si limit ou cursor est fourni : la page suivante s'obtient avec l'en-tête X-Next-Cursor)
      */
     @GetMapping("/appointments/patient/{patientId}")
     public ResponseEntity<List<Map<String, Object>>> getPatientAppointments(
-            @PathVariable String patientId) {
+            @PathVariable String patientId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
 
         log.info("📅 Récupération des rendez-vous pour le patient: {}", patientId);
 
-        List<AppointmentResponse> appointments = appointmentService.getPatientAppointments(patientId);
+        CursorPage<AppointmentResponse> appointments = appointmentService.getPatientAppointments(patientId,
+                AppointmentPageRequest.builder().status(status).from(from).to(to).cursor(cursor).limit(limit).build());
 
-        List<Map<String, Object>> response = appointments.stream()
+        List<Map<String, Object>> response = appointments.getContent().stream()
                 .map(appt -> {
                     Map<String, Object> map = new HashMap<>();
                     map.put("id", appt.getId());
@@ -142,7 +152,10 @@ public class PublicDoctorController {
                 })
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(response);
+        return DoctorAppointmentController.withNextCursor(CursorPage.<Map<String, Object>>builder()
+                .content(response)
+                .nextCursor(appointments.getNextCursor())
+                .build());
     }
     /**
      * Supprimer tous les rendez-vous d'un patient
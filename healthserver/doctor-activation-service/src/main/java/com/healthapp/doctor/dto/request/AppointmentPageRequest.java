@@ -0,0 +1,24 @@
+package com.healthapp.doctor.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtres et position d'une page de rendez-vous (du plus récent au plus ancien)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPageRequest {
+
+    private String status;            // Optionnel : PENDING, SCHEDULED, COMPLETED, ...
+    private LocalDateTime from;       // Optionnel : appointmentDateTime >= from
+    private LocalDateTime to;         // Optionnel : appointmentDateTime <= to
+    private String cursor;            // nextCursor de la page précédente
+    private Integer limit;
+}
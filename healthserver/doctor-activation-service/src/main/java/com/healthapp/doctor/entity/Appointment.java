@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -15,33 +17,42 @@ import java.time.LocalDateTime;
 
 /**
  * Appointment Entity - Manages appointments between patients and doctors
+ *
+ * ✅ Index composés : égalité (doctorId / patientId, status) puis date, dans l'ordre des tris des requêtes
+ * (créés au démarrage par MongoConfig, vérifiés par AppointmentRepositoryQueryPlanTest)
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "appointments")
+@CompoundIndexes({
+        // Historique docteur (pagination par clé date + _id), statistiques, liste des patients
+        @CompoundIndex(name = "doctor_date_id_idx", def = "{'doctorId': 1, 'appointmentDateTime': -1, '_id': -1}"),
+        // Rendez-vous d'un docteur par statut (en attente, à venir, historique filtré), triés ou filtrés par date
+        @CompoundIndex(name = "doctor_status_date_id_idx", def = "{'doctorId': 1, 'status': 1, 'appointmentDateTime': 1, '_id': 1}"),
+        // Historique patient (pagination par clé date + _id)
+        @CompoundIndex(name = "patient_date_id_idx", def = "{'patientId': 1, 'appointmentDateTime': -1, '_id': -1}")
+})
 public class Appointment {
 
     @Id
     private String id;
 
     // Patient Information
-    @Indexed
     private String patientId;
+    @Indexed
     private String patientEmail;
     private String patientName;
     private String patientPhone;
 
     // Doctor Information
-    @Indexed
     private String doctorId;
     private String doctorEmail;
     private String doctorName;
     private String specialization;
 
     // Appointment Details
-    @Indexed
     private LocalDateTime appointmentDateTime;
     private String appointmentType;   // CONSULTATION, FOLLOW_UP, EMERGENCY
     private String reason;
@@ -61,7 +72,6 @@ public class Appointment {
     private LocalDateTime respondedAt; // When doctor responded
 
     // Status Management
-    @Indexed
     @Builder.Default
     private String status = "PENDING"; // PENDING, SCHEDULED, CONFIRMED, COMPLETED, CANCELLED, REJECTED, NO_SHOW
 
@@ -0,0 +1,50 @@
+package com.healthapp.doctor.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compteurs de rendez-vous d'un docteur, tenus à jour par $inc à chaque changement de statut
+ *
+ * ✅ Le tableau de bord lit un seul document au lieu d'agréger la collection appointments
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "doctor_appointment_stats")
+public class DoctorAppointmentStats {
+
+    @Id
+    private String doctorId;
+
+    // Nombre de rendez-vous par statut (PENDING, SCHEDULED, COMPLETED, ...)
+    @Builder.Default
+    private Map<String, Integer> byStatus = new HashMap<>();
+
+    // Par jour de rendez-vous (yyyy-MM-dd) puis par statut : jour / semaine / mois en cours
+    @Builder.Default
+    private Map<String, Map<String, Integer>> days = new HashMap<>();
+
+    // Nombre de patients distincts (la liste est dans doctor_patients)
+    private Integer uniquePatients;
+
+    private LocalDateTime reconciledAt;
+
+    // Incrémenté par chaque réconciliation : un $inc n'est appliqué que si le document n'a pas été
+    // recalculé depuis la lecture précédant l'écriture du rendez-vous (sinon il serait compté deux fois)
+    private Long reconcileEpoch;
+
+    // Incrémenté par chaque $inc : la réconciliation ne peut pas écraser une mise à jour concurrente
+    @Version
+    private Long version;
+}
@@ -0,0 +1,30 @@
+package com.healthapp.doctor.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Patient distinct d'un docteur : un document par couple (doctorId, patientId)
+ *
+ * ✅ Index unique : l'upsert indique à lui seul si le patient est nouveau pour le docteur
+ * ✅ Remplace la liste des patients du document doctor_appointment_stats, qui grossissait sans limite
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "doctor_patients")
+@CompoundIndex(name = "doctor_patient_idx", def = "{'doctorId': 1, 'patientId': 1}", unique = true)
+public class DoctorPatient {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+    private String patientId;
+}
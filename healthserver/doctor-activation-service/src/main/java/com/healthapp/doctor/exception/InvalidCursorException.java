@@ -0,0 +1,11 @@
+package com.healthapp.doctor.exception;
+
+/**
+ * Curseur de pagination illisible (modifié ou provenant d'une autre liste)
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid pagination cursor: " + cursor);
+    }
+}
@@ -1,27 +1,45 @@
 package com.healthapp.doctor.service;
 
+import com.healthapp.doctor.dto.request.AppointmentPageRequest;
 import com.healthapp.doctor.dto.request.AppointmentRequest;
 import com.healthapp.doctor.dto.response.AppointmentResponse;
+import com.healthapp.doctor.dto.response.CursorPage;
 import com.healthapp.doctor.dto.response.DoctorStatsResponse;
 import com.healthapp.doctor.dto.response.PatientInfoResponse;
 import com.healthapp.doctor.entity.Appointment;
 import com.healthapp.doctor.entity.Doctor;
+import com.healthapp.doctor.exception.InvalidCursorException;
 import com.healthapp.doctor.repository.AppointmentRepository;
 import com.healthapp.doctor.repository.DoctorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.mongodb.core.query.Query;
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -36,9 +54,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AppointmentService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final MongoTemplate mongoTemplate;
+    private final DoctorStatsService doctorStatsService;
 
     /**
      * 🔐 Vérifier que le rendez-vous appartient au docteur
@@ -102,7 +125,9 @@ public class AppointmentService {
                 .status("PENDING")
                 .build();
 
+        Long statsEpoch = doctorStatsService.reconcileEpoch(doctor.getId());
         Appointment saved = appointmentRepository.save(appointment);
+        doctorStatsService.recordCreated(saved, statsEpoch);
 
         log.info("✅ Appointment created with PENDING status");
         log.info("Appointment ID: {}", saved.getId());
@@ -111,19 +136,15 @@ public class AppointmentService {
     }
 
     /**
-     * DOCTOR: Get all appointments for a doctor
+     * DOCTOR: Get appointments for a doctor, most recent first (keyset pagination)
      */
-    public List<AppointmentResponse> getDoctorAppointments(String doctorId) {
-        log.info("📋 Fetching all appointments for doctor: {}", doctorId);
-
-        List<Appointment> appointments = appointmentRepository
-                .findByDoctorIdOrderByAppointmentDateTimeDesc(doctorId);
+    public CursorPage<AppointmentResponse> getDoctorAppointments(String doctorId, AppointmentPageRequest page) {
+        log.info("📋 Fetching appointments for doctor: {} ({})", doctorId, page);
 
-        log.info("✅ Found {} appointments", appointments.size());
+        CursorPage<AppointmentResponse> appointments = findAppointmentsPage(Criteria.where("doctorId").is(doctorId), page);
 
-        return appointments.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        log.info("✅ Found {} appointments", appointments.getContent().size());
+        return appointments;
     }
 
     /**
@@ -192,7 +213,9 @@ public class AppointmentService {
         appointment.setDoctorResponse("ACCEPTED");
         appointment.setRespondedAt(LocalDateTime.now());
 
+        Long statsEpoch = doctorStatsService.reconcileEpoch(doctorId);
         Appointment saved = appointmentRepository.save(appointment);
+        doctorStatsService.recordTransition(saved, "PENDING", statsEpoch);
 
         log.info("✅ Appointment accepted successfully");
 
@@ -241,7 +264,9 @@ public class AppointmentService {
         appointment.setAvailableHoursSuggestion(availableHours);
         appointment.setRespondedAt(LocalDateTime.now());
 
+        Long statsEpoch = doctorStatsService.reconcileEpoch(doctorId);
         Appointment saved = appointmentRepository.save(appointment);
+        doctorStatsService.recordTransition(saved, "PENDING", statsEpoch);
 
         log.info("✅ Appointment rejected successfully");
 
@@ -250,133 +275,83 @@ public class AppointmentService {
 
     /**
      * DOCTOR: Get patients list
+     *
+     * ✅ Regroupement par patient côté MongoDB ($group) : une ligne par patient, jamais l'historique complet
+     * ✅ Trié par dernière visite, paginé ; la page et le total reviennent en une seule agrégation ($facet)
+     * ✅ size null : tous les patients (clients qui ne paginent pas)
      */
-    public List<PatientInfoResponse> getDoctorPatients(String doctorId) {
-        log.info("👥 Fetching patients for doctor: {}", doctorId);
-
-        List<Appointment> allAppointments = appointmentRepository
-                .findByDoctorIdOrderByAppointmentDateTimeDesc(doctorId);
-
-        // Group by patient
-        Map<String, List<Appointment>> byPatient = allAppointments.stream()
-                .collect(Collectors.groupingBy(Appointment::getPatientId));
-
-        log.info("✅ Found {} unique patients", byPatient.size());
-
-        return byPatient.entrySet().stream()
-                .map(entry -> {
-                    String patientId = entry.getKey();
-                    List<Appointment> appointments = entry.getValue();
-
-                    Appointment latest = appointments.get(0);
-
-                    long completed = appointments.stream()
-                            .filter(a -> "COMPLETED".equals(a.getStatus()))
-                            .count();
-
-                    long cancelled = appointments.stream()
-                            .filter(a -> "CANCELLED".equals(a.getStatus()))
-                            .count();
-
-                    LocalDateTime next = appointments.stream()
-                            .filter(Appointment::isUpcoming)
-                            .map(Appointment::getAppointmentDateTime)
-                            .min(LocalDateTime::compareTo)
-                            .orElse(null);
-
-                    LocalDateTime first = appointments.stream()
-                            .map(Appointment::getCreatedAt)
-                            .min(LocalDateTime::compareTo)
-                            .orElse(null);
-
-                    return PatientInfoResponse.builder()
-                            .patientId(patientId)
-                            .patientName(latest.getPatientName())
-                            .patientEmail(latest.getPatientEmail())
-                            .patientPhone(latest.getPatientPhone())
-                            .totalAppointments(appointments.size())
-                            .completedAppointments((int) completed)
-                            .cancelledAppointments((int) cancelled)
-                            .lastAppointmentDate(latest.getAppointmentDateTime())
-                            .nextAppointmentDate(next)
-                            .firstVisitDate(first)
-                            .build();
-                })
-                .collect(Collectors.toList());
+    public Page<PatientInfoResponse> getDoctorPatients(String doctorId, int page, Integer size) {
+        log.info("👥 Fetching patients for doctor: {} (page {}, size {})", doctorId, page, size);
+
+        Date now = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+        AggregationExpression nextAppointment = context -> new Document("$cond", Arrays.asList(
+                new Document("$and", List.of(
+                        new Document("$eq", List.of("$status", "SCHEDULED")),
+                        new Document("$gt", List.of("$appointmentDateTime", now)))),
+                "$appointmentDateTime",
+                null));
+
+        List<AggregationOperation> patientsPage = new ArrayList<>();
+        patientsPage.add(Aggregation.sort(Sort.by(Sort.Order.desc("lastAppointmentDate"), Sort.Order.asc("_id"))));
+        if (size != null) {
+            patientsPage.add(Aggregation.skip((long) page * size));
+            patientsPage.add(Aggregation.limit(size));
+        }
+        patientsPage.add(Aggregation.project("patientName", "patientEmail", "patientPhone",
+                        "totalAppointments", "completedAppointments", "cancelledAppointments",
+                        "lastAppointmentDate", "nextAppointmentDate", "firstVisitDate")
+                .and("patientId").previousOperation());
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("doctorId").is(doctorId)),
+                Aggregation.sort(Sort.Direction.DESC, "appointmentDateTime"),
+                Aggregation.group("patientId")
+                        .first("patientName").as("patientName")
+                        .first("patientEmail").as("patientEmail")
+                        .first("patientPhone").as("patientPhone")
+                        .count().as("totalAppointments")
+                        .sum(ConditionalOperators.when(Criteria.where("status").is("COMPLETED")).then(1).otherwise(0))
+                        .as("completedAppointments")
+                        .sum(ConditionalOperators.when(Criteria.where("status").is("CANCELLED")).then(1).otherwise(0))
+                        .as("cancelledAppointments")
+                        .first("appointmentDateTime").as("lastAppointmentDate")
+                        .min(nextAppointment).as("nextAppointmentDate")
+                        .min("createdAt").as("firstVisitDate"),
+                Aggregation.facet(patientsPage.toArray(AggregationOperation[]::new))
+                        .as("patients")
+                        .and(Aggregation.count().as("count")).as("total"));
+
+        Document result = mongoTemplate.aggregate(aggregation, Appointment.class, Document.class)
+                .getUniqueMappedResult();
+
+        List<PatientInfoResponse> patients = new ArrayList<>();
+        long total = 0;
+        if (result != null) {
+            for (Document row : result.getList("patients", Document.class, List.of())) {
+                patients.add(mongoTemplate.getConverter().read(PatientInfoResponse.class, row));
+            }
+            List<Document> count = result.getList("total", Document.class, List.of());
+            total = count.isEmpty() ? 0 : ((Number) count.get(0).get("count")).longValue();
+        }
+
+        log.info("✅ Found {} unique patients ({} on this page)", total, patients.size());
+
+        return new PageImpl<>(patients, size != null ? PageRequest.of(page, size) : Pageable.unpaged(), total);
     }
 
     /**
      * DOCTOR: Get dashboard statistics
+     *
+     * ✅ Lecture du document doctor_appointment_stats, tenu à jour à chaque transition
      */
-    public DoctorStatsResponse getDoctorStats(String doctorId) {
-        log.info("📊 Generating stats for doctor: {}", doctorId);
+    public DoctorStatsResponse getDoctorStats(Doctor doctor) {
+        log.info("📊 Generating stats for doctor: {}", doctor.getId());
 
-        Doctor doctor = doctorRepository.findById(doctorId)
-                .orElseThrow(() -> {
-                    log.error("❌ Doctor not found: {}", doctorId);
-                    return new RuntimeException("Doctor not found");
-                });
+        DoctorStatsResponse stats = doctorStatsService.getDoctorStats(doctor);
 
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = now.with(LocalTime.MIN);
-        LocalDateTime endOfDay = now.with(LocalTime.MAX);
-
-        // Today's appointments
-        List<Appointment> todayAppts = appointmentRepository
-                .findTodayAppointmentsForDoctor(doctorId, startOfDay, endOfDay);
-
-        int todayTotal = todayAppts.size();
-        int todayCompleted = (int) todayAppts.stream()
-                .filter(a -> "COMPLETED".equals(a.getStatus()))
-                .count();
-        int todayPending = (int) todayAppts.stream()
-                .filter(a -> "PENDING".equals(a.getStatus()))
-                .count();
-
-        // Overall stats
-        long totalAppts = appointmentRepository.countByDoctorId(doctorId);
-        long upcoming = appointmentRepository.countByDoctorIdAndStatus(doctorId, "SCHEDULED");
-        long completed = appointmentRepository.countByDoctorIdAndStatus(doctorId, "COMPLETED");
-        long cancelled = appointmentRepository.countByDoctorIdAndStatus(doctorId, "CANCELLED");
-        long pending = appointmentRepository.countByDoctorIdAndStatus(doctorId, "PENDING");
-
-        // This week
-        LocalDateTime startOfWeek = now.with(LocalDate.now().minusDays(now.getDayOfWeek().getValue() - 1))
-                .with(LocalTime.MIN);
-        List<Appointment> weekAppts = appointmentRepository
-                .findAppointmentsBetweenDates(doctorId, startOfWeek, now);
-
-        // This month
-        LocalDateTime startOfMonth = now.withDayOfMonth(1).with(LocalTime.MIN);
-        List<Appointment> monthAppts = appointmentRepository
-                .findAppointmentsBetweenDates(doctorId, startOfMonth, now);
-
-        // Count unique patients
-        List<Appointment> distinctPatients = appointmentRepository.findDistinctPatientsByDoctorId(doctorId);
-        int uniquePatients = distinctPatients.stream()
-                .map(Appointment::getPatientId)
-                .collect(Collectors.toSet())
-                .size();
-
-        log.info("✅ Stats generated: {} total appointments, {} patients", totalAppts, uniquePatients);
-
-        return DoctorStatsResponse.builder()
-                .doctorId(doctorId)
-                .doctorName(doctor.getFullName())
-                .specialization(doctor.getSpecialization())
-                .todayAppointments(todayTotal)
-                .todayCompleted(todayCompleted)
-                .todayPending(todayPending)
-                .pendingAppointments((int) pending)
-                .totalAppointments((int) totalAppts)
-                .totalPatients(uniquePatients)
-                .upcomingAppointments((int) upcoming)
-                .completedAppointments((int) completed)
-                .cancelledAppointments((int) cancelled)
-                .thisWeekAppointments(weekAppts.size())
-                .thisMonthAppointments(monthAppts.size())
-                .generatedAt(LocalDateTime.now())
-                .build();
+        log.info("✅ Stats generated: {} total appointments, {} patients",
+                stats.getTotalAppointments(), stats.getTotalPatients());
+        return stats;
     }
 
     /**
@@ -410,13 +385,16 @@ public class AppointmentService {
             throw new RuntimeException("Unauthorized: This appointment does not belong to you");
         }
 
+        String previousStatus = appointment.getStatus();
         appointment.setStatus("COMPLETED");
         appointment.setDiagnosis(diagnosis);
         appointment.setPrescription(prescription);
         appointment.setDoctorNotes(notes);
         appointment.setCompletedAt(LocalDateTime.now());
 
+        Long statsEpoch = doctorStatsService.reconcileEpoch(doctorId);
         Appointment updated = appointmentRepository.save(appointment);
+        doctorStatsService.recordTransition(updated, previousStatus, statsEpoch);
 
         log.info("✅ Appointment completed successfully");
 
@@ -459,31 +437,121 @@ public class AppointmentService {
             throw new RuntimeException("Appointment cannot be cancelled");
         }
 
+        String previousStatus = appointment.getStatus();
         appointment.setStatus("CANCELLED");
         appointment.setCancelledBy(cancelledBy);
         appointment.setCancellationReason(reason);
         appointment.setCancelledAt(LocalDateTime.now());
 
-        appointmentRepository.save(appointment);
+        Long statsEpoch = doctorStatsService.reconcileEpoch(doctorId);
+        Appointment cancelled = appointmentRepository.save(appointment);
+        doctorStatsService.recordTransition(cancelled, previousStatus, statsEpoch);
 
         log.info("✅ Appointment cancelled successfully");
     }
 
     /**
-     * PATIENT: Get patient appointments
+     * PATIENT: Get patient appointments, most recent first (keyset pagination)
      */
-    public List<AppointmentResponse> getPatientAppointments(String patientId) {
-        log.info("📅 Fetching appointments for patient: {}", patientId);
+    public CursorPage<AppointmentResponse> getPatientAppointments(String patientId, AppointmentPageRequest page) {
+        log.info("📅 Fetching appointments for patient: {} ({})", patientId, page);
 
-        List<Appointment> appointments = appointmentRepository
-                .findByPatientIdOrderByAppointmentDateTimeDesc(patientId);
+        CursorPage<AppointmentResponse> appointments = findAppointmentsPage(Criteria.where("patientId").is(patientId), page);
 
-        log.info("✅ Found {} appointments", appointments.size());
+        log.info("✅ Found {} appointments", appointments.getContent().size());
+        return appointments;
+    }
 
-        return appointments.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Helper: page triée par (appointmentDateTime, id) décroissants
+     *
+     * ✅ Pagination par clé : la page suivante reprend après le dernier rendez-vous renvoyé,
+     * par un parcours d'index borné (pas de skip), quelle que soit la taille de l'historique
+     * ✅ Ni limit ni curseur : liste complète, comme avant la pagination (clients qui ne lisent pas X-Next-Cursor)
+     */
+    private CursorPage<AppointmentResponse> findAppointmentsPage(Criteria criteria, AppointmentPageRequest page) {
+        boolean paged = page.getLimit() != null || (page.getCursor() != null && !page.getCursor().isBlank());
+        int limit = page.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(page.getLimit(), 1), MAX_PAGE_SIZE);
+        Cursor after = decodeCursor(page.getCursor());
+        LocalDateTime afterDateTime = after == null ? null : after.dateTime();
+
+        if (page.getStatus() != null) {
+            criteria.and("status").is(page.getStatus());
+        }
+
+        // Borne haute : fin de la période demandée ou position du curseur
+        LocalDateTime upper = page.getTo();
+        if (afterDateTime != null && (upper == null || afterDateTime.isBefore(upper))) {
+            upper = afterDateTime;
+        }
+        if (page.getFrom() != null || upper != null) {
+            Criteria date = criteria.and("appointmentDateTime");
+            if (page.getFrom() != null) {
+                date.gte(page.getFrom());
+            }
+            if (upper != null) {
+                date.lte(upper);
+            }
+        }
+
+        // Même date que le curseur : seuls les id inférieurs restent à lire
+        if (after != null) {
+            criteria.norOperator(Criteria.where("appointmentDateTime").is(afterDateTime).and("id").gte(after.idValue()));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Order.desc("appointmentDateTime"), Sort.Order.desc("id")));
+        if (paged) {
+            query.limit(limit + 1);
+        }
+        List<Appointment> appointments = mongoTemplate.find(query, Appointment.class);
+
+        String nextCursor = null;
+        if (paged && appointments.size() > limit) {
+            appointments = appointments.subList(0, limit);
+            nextCursor = encodeCursor(appointments.get(limit - 1));
+        }
+
+        return CursorPage.<AppointmentResponse>builder()
+                .content(appointments.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
+
+    private static String encodeCursor(Appointment appointment) {
+        String position = appointment.getAppointmentDateTime() + CURSOR_SEPARATOR + appointment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Helper: curseur (date|id en Base64) → position, null pour la première page
+     */
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0 || separator == position.length() - 1) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new Cursor(LocalDateTime.parse(position.substring(0, separator)), position.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private record Cursor(LocalDateTime dateTime, String id) {
+
+        /**
+         * Les id générés sont des ObjectId : Spring ne convertit pas la chaîne dans un $gte
+         */
+        Object idValue() {
+            return ObjectId.isValid(id) ? new ObjectId(id) : id;
+        }
+    }
+
     public long updatePatientEmail(String oldEmail, String newEmail) {
         Query query = new Query(
                 Criteria.where("patientEmail").is(oldEmail)
@@ -525,6 +593,7 @@ public class AppointmentService {
 
             // Supprimer par doctorId (plus fiable)
             appointmentRepository.deleteByDoctorId(doctorId);
+            doctorStatsService.deleteStats(doctorId);
 
             log.info("========================================");
             log.info("✅ DELETED {} APPOINTMENTS", count);
@@ -562,8 +631,13 @@ public class AppointmentService {
                 return 0;
             }
 
+            // Docteurs dont les statistiques incluent ce patient
+            List<String> doctorIds = mongoTemplate.findDistinct(
+                    new Query(Criteria.where("patientId").is(patientId)), "doctorId", Appointment.class, String.class);
+
             // Supprimer par patientId (plus fiable)
             appointmentRepository.deleteByPatientId(patientId);
+            doctorStatsService.removePatient(patientId, doctorIds);
 
             log.info("========================================");
             log.info("✅ DELETED {} APPOINTMENTS", count);
@@ -0,0 +1,358 @@
+package com.healthapp.doctor.service;
+
+import com.healthapp.doctor.dto.response.DoctorStatsResponse;
+import com.healthapp.doctor.entity.Appointment;
+import com.healthapp.doctor.entity.Doctor;
+import com.healthapp.doctor.entity.DoctorAppointmentStats;
+import com.healthapp.doctor.entity.DoctorPatient;
+import com.mongodb.ErrorCategory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques du tableau de bord docteur (doctor_appointment_stats)
+ *
+ * ✅ Chaque transition de rendez-vous met à jour le document du docteur par un $inc atomique
+ * ✅ GET /dashboard/stats lit ce seul document
+ * ✅ La réconciliation périodique le recalcule depuis appointments pour corriger toute dérive
+ * ✅ Un $inc ne s'applique qu'au document lu avant l'écriture du rendez-vous (reconcileEpoch) :
+ *    un document recalculé entre-temps contient peut-être déjà le changement, il est alors recalculé à nouveau
+ * ✅ Patients distincts dans doctor_patients (index unique), seul leur nombre est dans le document
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DoctorStatsService {
+
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+    private static final int PATIENT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * À lire avant d'écrire le rendez-vous, puis à passer à recordCreated / recordTransition
+     * @return null si le document n'existe pas ou n'a jamais été réconcilié
+     */
+    public Long reconcileEpoch(String doctorId) {
+        Query query = Query.query(Criteria.where("_id").is(doctorId));
+        query.fields().include("reconcileEpoch");
+        DoctorAppointmentStats stats = mongoTemplate.findOne(query, DoctorAppointmentStats.class);
+        return stats == null ? null : stats.getReconcileEpoch();
+    }
+
+    /**
+     * Nouveau rendez-vous : +1 sur son statut et son jour, +1 patient s'il est nouveau pour le docteur
+     */
+    public void recordCreated(Appointment appointment, Long reconcileEpoch) {
+        Update update = new Update();
+        increment(update, appointment, appointment.getStatus(), 1);
+        if (addPatient(appointment.getDoctorId(), appointment.getPatientId())) {
+            update.inc("uniquePatients", 1);
+        }
+        apply(appointment.getDoctorId(), reconcileEpoch, update);
+    }
+
+    /**
+     * Changement de statut (accept / reject / complete / cancel) : -1 sur l'ancien, +1 sur le nouveau
+     */
+    public void recordTransition(Appointment appointment, String previousStatus, Long reconcileEpoch) {
+        if (Objects.equals(previousStatus, appointment.getStatus())) {
+            return;
+        }
+        Update update = new Update();
+        increment(update, appointment, previousStatus, -1);
+        increment(update, appointment, appointment.getStatus(), 1);
+        apply(appointment.getDoctorId(), reconcileEpoch, update);
+    }
+
+    public void deleteStats(String doctorId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(doctorId)), DoctorAppointmentStats.class);
+        mongoTemplate.remove(Query.query(Criteria.where("doctorId").is(doctorId)), DoctorPatient.class);
+    }
+
+    /**
+     * Rendez-vous d'un patient supprimés : il n'est plus un patient de ces docteurs, dont les statistiques sont recalculées
+     */
+    public void removePatient(String patientId, List<String> doctorIds) {
+        mongoTemplate.remove(Query.query(Criteria.where("doctorId").in(doctorIds).and("patientId").is(patientId)),
+                DoctorPatient.class);
+        doctorIds.forEach(this::reconcile);
+    }
+
+    /**
+     * DOCTOR: Get dashboard statistics (lecture d'un seul document)
+     */
+    public DoctorStatsResponse getDoctorStats(Doctor doctor) {
+        Query query = Query.query(Criteria.where("_id").is(doctor.getId()));
+        // Liste des patients des documents antérieurs à doctor_patients, retirée à leur prochaine réconciliation
+        query.fields().exclude("patients");
+        DoctorAppointmentStats stats = mongoTemplate.findOne(query, DoctorAppointmentStats.class);
+        if (stats == null) {
+            stats = reconcile(doctor.getId());
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        Map<String, Integer> todayCounts = stats.getDays().getOrDefault(today.toString(), Map.of());
+        Map<String, Integer> byStatus = stats.getByStatus();
+
+        return DoctorStatsResponse.builder()
+                .doctorId(doctor.getId())
+                .doctorName(doctor.getFullName())
+                .specialization(doctor.getSpecialization())
+                .todayAppointments(sum(todayCounts))
+                .todayCompleted(todayCounts.getOrDefault("COMPLETED", 0))
+                .todayPending(todayCounts.getOrDefault("PENDING", 0))
+                .pendingAppointments(byStatus.getOrDefault("PENDING", 0))
+                .totalAppointments(sum(byStatus))
+                .totalPatients(stats.getUniquePatients() == null ? 0 : stats.getUniquePatients())
+                .upcomingAppointments(byStatus.getOrDefault("SCHEDULED", 0))
+                .completedAppointments(byStatus.getOrDefault("COMPLETED", 0))
+                .cancelledAppointments(byStatus.getOrDefault("CANCELLED", 0))
+                .thisWeekAppointments(sumDays(stats, startOfWeek, today))
+                .thisMonthAppointments(sumDays(stats, startOfMonth, today))
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Réconciliation nocturne de tous les docteurs ayant des rendez-vous
+     */
+    @Scheduled(cron = "${doctor.stats.reconcile-cron:0 15 2 * * *}")
+    public void reconcileAll() {
+        List<String> doctorIds = mongoTemplate.findDistinct(new Query(), "doctorId", Appointment.class, String.class);
+        int failures = 0;
+        for (String doctorId : doctorIds) {
+            try {
+                reconcile(doctorId);
+            } catch (Exception e) {
+                failures++;
+                log.error("❌ Stats reconciliation failed for doctor {}: {}", doctorId, e.getMessage());
+            }
+        }
+
+        long orphans = mongoTemplate.remove(Query.query(Criteria.where("_id").nin(doctorIds)),
+                DoctorAppointmentStats.class).getDeletedCount();
+        mongoTemplate.remove(Query.query(Criteria.where("doctorId").nin(doctorIds)), DoctorPatient.class);
+        log.info("🔁 Doctor stats reconciled: {} doctors, {} failures, {} orphan documents removed",
+                doctorIds.size(), failures, orphans);
+    }
+
+    /**
+     * Recalcule le document d'un docteur depuis appointments
+     *
+     * ✅ Une seule agrégation $facet (statuts + nombre de patients distincts), jours limités au mois / à la semaine en cours
+     * ✅ doctor_patients complété depuis appointments
+     * ✅ Remplacement avec contrôle de version : un $inc concurrent fait recommencer le calcul
+     * ✅ reconcileEpoch incrémenté : les $inc préparés avant ce calcul ne s'appliquent plus
+     */
+    public DoctorAppointmentStats reconcile(String doctorId) {
+        for (int attempt = 1; ; attempt++) {
+            DoctorAppointmentStats current = mongoTemplate.findById(doctorId, DoctorAppointmentStats.class);
+            syncPatients(doctorId);
+            DoctorAppointmentStats computed = compute(doctorId);
+            computed.setVersion(current == null ? null : current.getVersion());
+            computed.setReconcileEpoch(current == null || current.getReconcileEpoch() == null
+                    ? 1L : current.getReconcileEpoch() + 1);
+
+            if (current != null && !nonZero(current.getByStatus()).equals(computed.getByStatus())) {
+                log.warn("⚠️ Stats drift corrected for doctor {}: {} -> {}",
+                        doctorId, current.getByStatus(), computed.getByStatus());
+            }
+
+            try {
+                return mongoTemplate.save(computed);
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt >= MAX_RECONCILE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private DoctorAppointmentStats compute(String doctorId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("doctorId").is(doctorId)),
+                Aggregation.facet(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.group("patientId"), Aggregation.count().as("count")).as("patients"));
+
+        Document facets = mongoTemplate.aggregate(aggregation, Appointment.class, Document.class)
+                .getUniqueMappedResult();
+
+        Map<String, Integer> byStatus = new HashMap<>();
+        int patients = 0;
+        if (facets != null) {
+            for (Document row : facets.getList("byStatus", Document.class, List.of())) {
+                byStatus.merge(row.getString("_id"), ((Number) row.get("count")).intValue(), Integer::sum);
+            }
+            for (Document row : facets.getList("patients", Document.class, List.of())) {
+                patients = ((Number) row.get("count")).intValue();
+            }
+        }
+
+        // Seuls les jours encore affichés sont conservés : début de semaine ou de mois, le plus ancien
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.withDayOfMonth(1);
+        LocalDate startOfWeek = today.minusDays(today.getDayOfWeek().getValue() - 1);
+        if (startOfWeek.isBefore(from)) {
+            from = startOfWeek;
+        }
+
+        Query recent = Query.query(Criteria.where("doctorId").is(doctorId)
+                .and("appointmentDateTime").gte(from.atTime(LocalTime.MIN)));
+        recent.fields().include("appointmentDateTime", "status");
+        Map<String, Map<String, Integer>> days = new HashMap<>();
+        for (Appointment appointment : mongoTemplate.find(recent, Appointment.class)) {
+            days.computeIfAbsent(appointment.getAppointmentDateTime().toLocalDate().toString(), day -> new HashMap<>())
+                    .merge(appointment.getStatus(), 1, Integer::sum);
+        }
+
+        return DoctorAppointmentStats.builder()
+                .doctorId(doctorId)
+                .byStatus(byStatus)
+                .days(days)
+                .uniquePatients(patients)
+                .reconciledAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Ajoute les patients présents dans appointments et absents de doctor_patients, par lots
+     */
+    private void syncPatients(String doctorId) {
+        Aggregation patients = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("doctorId").is(doctorId)),
+                Aggregation.group("patientId"));
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(patients, Appointment.class, Document.class)) {
+            List<String> batch = new ArrayList<>(PATIENT_BATCH_SIZE);
+            rows.forEach(row -> {
+                if (row.getString("_id") != null) {
+                    batch.add(row.getString("_id"));
+                }
+                if (batch.size() == PATIENT_BATCH_SIZE) {
+                    upsertPatients(doctorId, batch);
+                    batch.clear();
+                }
+            });
+            upsertPatients(doctorId, batch);
+        }
+    }
+
+    private void upsertPatients(String doctorId, List<String> patientIds) {
+        if (patientIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DoctorPatient.class);
+        patientIds.forEach(patientId -> bulk.upsert(patientQuery(doctorId, patientId), patientInsert(doctorId, patientId)));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // Patient ajouté au même moment par recordCreated : déjà présent
+            if (e.getErrors().stream().anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return true si le patient est nouveau pour le docteur
+     */
+    private boolean addPatient(String doctorId, String patientId) {
+        if (patientId == null) {
+            return false;
+        }
+        try {
+            return mongoTemplate.upsert(patientQuery(doctorId, patientId), patientInsert(doctorId, patientId),
+                    DoctorPatient.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Upsert concurrent du même patient : un seul des deux le compte
+            return false;
+        } catch (Exception e) {
+            log.error("❌ Failed to record patient {} for doctor {}: {}", patientId, doctorId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Query patientQuery(String doctorId, String patientId) {
+        return Query.query(Criteria.where("doctorId").is(doctorId).and("patientId").is(patientId));
+    }
+
+    private static Update patientInsert(String doctorId, String patientId) {
+        return new Update().setOnInsert("doctorId", doctorId).setOnInsert("patientId", patientId);
+    }
+
+    /**
+     * Le $inc ne s'applique qu'au document lu avant l'écriture du rendez-vous.
+     * Sinon (document absent, antérieur à reconcileEpoch, ou réconcilié entre-temps sans que l'on sache
+     * si ce changement y est compté) : recalcul depuis appointments, qui contient déjà ce changement.
+     */
+    private void apply(String doctorId, Long reconcileEpoch, Update update) {
+        if (update.getUpdateObject().isEmpty()) {
+            return;
+        }
+        try {
+            if (reconcileEpoch == null || mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(doctorId).and("reconcileEpoch").is(reconcileEpoch)),
+                    update, DoctorAppointmentStats.class).getMatchedCount() == 0) {
+                reconcile(doctorId);
+            }
+        } catch (Exception e) {
+            // La réconciliation corrigera l'écart ; le rendez-vous lui-même est déjà enregistré
+            log.error("❌ Failed to update stats for doctor {}: {}", doctorId, e.getMessage());
+        }
+    }
+
+    private static void increment(Update update, Appointment appointment, String status, int delta) {
+        if (status == null) {
+            return;
+        }
+        update.inc("byStatus." + status, delta);
+        if (appointment.getAppointmentDateTime() != null) {
+            update.inc("days." + appointment.getAppointmentDateTime().toLocalDate() + "." + status, delta);
+        }
+    }
+
+    /**
+     * Un statut ramené à 0 par $inc reste dans le document, la réconciliation ne l'écrit pas
+     */
+    private static Map<String, Integer> nonZero(Map<String, Integer> counts) {
+        Map<String, Integer> nonZero = new HashMap<>(counts);
+        nonZero.values().removeIf(count -> count == 0);
+        return nonZero;
+    }
+
+    private static int sumDays(DoctorAppointmentStats stats, LocalDate from, LocalDate to) {
+        int total = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            total += sum(stats.getDays().getOrDefault(day.toString(), Map.of()));
+        }
+        return total;
+    }
+
+    private static int sum(Map<String, Integer> counts) {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
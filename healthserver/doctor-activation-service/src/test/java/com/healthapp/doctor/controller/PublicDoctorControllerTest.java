@@ -0,0 +1,145 @@
+package com.healthapp.doctor.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.doctor.entity.Appointment;
+import com.healthapp.doctor.exception.GlobalExceptionHandler;
+import com.healthapp.doctor.repository.AppointmentRepository;
+import com.healthapp.doctor.repository.DoctorRepository;
+import com.healthapp.doctor.service.AppointmentService;
+import com.healthapp.doctor.service.DoctorStatsService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pagination par clé (appointmentDateTime, _id) de GET /api/doctors/appointments/patient/{patientId},
+ * sur un MongoDB en mémoire
+ */
+class PublicDoctorControllerTest {
+
+    private static final String PATIENT = "patient-1";
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "doctor_test");
+        AppointmentRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(AppointmentRepository.class);
+        AppointmentService appointmentService = new AppointmentService(
+                repository, mock(DoctorRepository.class), mongoTemplate, new DoctorStatsService(mongoTemplate));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new PublicDoctorController(mock(DoctorRepository.class), appointmentService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void pagesWalkTiesOnAppointmentDateTimeWithoutLossOrRepeat() throws Exception {
+        // 5 rendez-vous au même créneau, à cheval sur les pages de 2
+        LocalDateTime slot = LocalDateTime.of(2025, 11, 3, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            insert(slot);
+        }
+        String latest = insert(slot.plusDays(1));
+        String oldest = insert(slot.minusDays(1));
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/api/doctors/appointments/patient/{patientId}", PATIENT)
+                            .param("limit", "2")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            for (Map<?, ?> appointment : new ObjectMapper().readValue(result.getResponse().getContentAsByteArray(), Map[].class)) {
+                ids.add((String) appointment.get("id"));
+            }
+            cursor = result.getResponse().getHeader(DoctorAppointmentController.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(4, pages);
+        assertEquals(7, ids.size());
+        assertEquals(7, new HashSet<>(ids).size());
+        assertEquals(latest, ids.get(0));
+        assertEquals(oldest, ids.get(6));
+        // Même créneau : _id décroissant
+        List<String> tied = ids.subList(1, 6);
+        assertEquals(tied.stream().sorted((a, b) -> b.compareTo(a)).toList(), tied);
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        insert(LocalDateTime.of(2025, 11, 3, 9, 0));
+        insert(LocalDateTime.of(2025, 11, 4, 9, 0));
+
+        MvcResult result = mockMvc.perform(get("/api/doctors/appointments/patient/{patientId}", PATIENT)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getResponse().getHeader(DoctorAppointmentController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void malformedCursorsAreRejectedWith400() throws Exception {
+        insert(LocalDateTime.of(2025, 11, 3, 9, 0));
+
+        for (String cursor : List.of(
+                "%%%pas-du-base64",
+                encode("2025-11-03T09:00"),
+                encode("2025-11-03T09:00|"),
+                encode("pas-une-date|" + "0".repeat(24)))) {
+            mockMvc.perform(get("/api/doctors/appointments/patient/{patientId}", PATIENT).param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private String insert(LocalDateTime appointmentDateTime) {
+        return mongoTemplate.insert(Appointment.builder()
+                .patientId(PATIENT)
+                .doctorId("doctor-1")
+                .appointmentDateTime(appointmentDateTime)
+                .status("SCHEDULED")
+                .build()).getId();
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
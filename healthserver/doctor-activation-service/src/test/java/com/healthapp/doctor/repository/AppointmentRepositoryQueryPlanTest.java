@@ -0,0 +1,259 @@
+package com.healthapp.doctor.repository;
+
+import com.healthapp.doctor.config.MongoConfig;
+import com.healthapp.doctor.dto.request.AppointmentPageRequest;
+import com.healthapp.doctor.dto.response.AppointmentResponse;
+import com.healthapp.doctor.dto.response.CursorPage;
+import com.healthapp.doctor.entity.Appointment;
+import com.healthapp.doctor.entity.DoctorPatient;
+import com.healthapp.doctor.service.AppointmentService;
+import com.healthapp.doctor.service.DoctorStatsService;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans d'exécution de chaque requête d'AppointmentRepository (et des listes paginées, patients
+ * et statistiques d'AppointmentService / DoctorStatsService), avec les index déclarés sur Appointment.
+ *
+ * ✅ Chaque requête envoyée à MongoDB est rejouée avec explain (queryPlanner)
+ * ✅ Échec si le plan retenu parcourt toute la collection (COLLSCAN) ou trie en mémoire (SORT)
+ *
+ * mongod : QUERY_PLAN_MONGO_URI si défini, sinon mongod embarqué s'il est déjà dans le cache de flapdoodle
+ * (~/.embedmongo) ou si -Dquery-plan.download=true autorise son téléchargement.
+ * Sans l'un ni l'autre (poste hors ligne), le test est ignoré.
+ */
+class AppointmentRepositoryQueryPlanTest {
+
+    private static final String DATABASE = "query_plan_test";
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "delete");
+    private static final Set<String> FORBIDDEN_STAGES = Set.of("COLLSCAN", "SORT");
+
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+    private static AppointmentRepository repository;
+    private static AppointmentService appointmentService;
+    private static DoctorStatsService doctorStatsService;
+
+    @BeforeAll
+    static void start() {
+        String uri = System.getenv("QUERY_PLAN_MONGO_URI");
+        if (uri == null) {
+            Assumptions.assumeTrue(Boolean.getBoolean("query-plan.download") || mongodCached(),
+                    "Ni QUERY_PLAN_MONGO_URI ni mongod en cache : -Dquery-plan.download=true pour le télécharger");
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            uri = "mongodb://" + mongod.current().getServerAddress().getHost()
+                    + ":" + mongod.current().getServerAddress().getPort();
+        }
+
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                            commands.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build());
+
+        MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.dropCollection(Appointment.class);
+        mongoTemplate.dropCollection(DoctorPatient.class);
+        MongoConfig.ensureIndexes(mongoTemplate, Appointment.class);
+        MongoConfig.ensureIndexes(mongoTemplate, DoctorPatient.class);
+        mongoTemplate.insertAll(sampleAppointments());
+        repository = new MongoRepositoryFactory(mongoTemplate).getRepository(AppointmentRepository.class);
+        doctorStatsService = new DoctorStatsService(mongoTemplate);
+        appointmentService = new AppointmentService(repository, null, mongoTemplate, doctorStatsService);
+    }
+
+    /**
+     * Archive mongod déjà téléchargée par flapdoodle (~/.embedmongo/archives)
+     */
+    private static boolean mongodCached() {
+        Path archives = Path.of(System.getProperty("user.home"), ".embedmongo", "archives");
+        if (!Files.isDirectory(archives)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.walk(archives)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .anyMatch(name -> name.startsWith("mongodb") && name.contains("-7.0."));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    /**
+     * Une requête par méthode du repository, puis les pages par curseur ; les suppressions en dernier
+     */
+    private static Map<String, Runnable> queries() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("getDoctorAppointments (keyset)", () -> nextPage(
+                page -> appointmentService.getDoctorAppointments("doctor-1", page),
+                AppointmentPageRequest.builder().limit(20).build()));
+        queries.put("getDoctorAppointments (status, keyset)", () -> nextPage(
+                page -> appointmentService.getDoctorAppointments("doctor-1", page),
+                AppointmentPageRequest.builder().status("SCHEDULED").to(now).limit(20).build()));
+        queries.put("getDoctorAppointments (complete)", () -> appointmentService.getDoctorAppointments("doctor-1",
+                AppointmentPageRequest.builder().build()));
+        queries.put("getPatientAppointments (keyset)", () -> nextPage(
+                page -> appointmentService.getPatientAppointments("patient-1", page),
+                AppointmentPageRequest.builder().from(now.minusDays(100)).limit(5).build()));
+        queries.put("getDoctorPatients (complete)", () -> appointmentService.getDoctorPatients("doctor-1", 0, null));
+        queries.put("getDoctorPatients (page)", () -> appointmentService.getDoctorPatients("doctor-1", 1, 10));
+        queries.put("DoctorStatsService.reconcile", () -> doctorStatsService.reconcile("doctor-1"));
+        queries.put("DoctorStatsService.reconcileEpoch", () -> doctorStatsService.reconcileEpoch("doctor-1"));
+        queries.put("findUpcomingAppointmentsForDoctor",
+                () -> repository.findUpcomingAppointmentsForDoctor("doctor-1", now));
+        queries.put("findByDoctorIdAndStatusOrderByAppointmentDateTimeAsc",
+                () -> repository.findByDoctorIdAndStatusOrderByAppointmentDateTimeAsc("doctor-1", "PENDING"));
+        queries.put("countByDoctorId", () -> repository.countByDoctorId("doctor-1"));
+        queries.put("findByPatientId", () -> repository.findByPatientId("patient-1"));
+        queries.put("findByPatientEmail", () -> repository.findByPatientEmail("patient-1@example.com"));
+        queries.put("countByPatientId", () -> repository.countByPatientId("patient-1"));
+        queries.put("deleteByDoctorId", () -> repository.deleteByDoctorId("doctor-9"));
+        queries.put("deleteByPatientId", () -> repository.deleteByPatientId("patient-9"));
+        queries.put("deleteByPatientEmail", () -> repository.deleteByPatientEmail("patient-8@example.com"));
+        return queries;
+    }
+
+    /**
+     * Première page puis page suivante (requête avec curseur)
+     */
+    private static void nextPage(Function<AppointmentPageRequest, CursorPage<AppointmentResponse>> listing,
+                                 AppointmentPageRequest page) {
+        String cursor = listing.apply(page).getNextCursor();
+        assertNotNull(cursor, "Une seule page : le curseur n'est pas contrôlé");
+        page.setCursor(cursor);
+        listing.apply(page);
+    }
+
+    @Test
+    void everyRepositoryQueryIsCovered() {
+        Set<String> declared = Arrays.stream(AppointmentRepository.class.getDeclaredMethods())
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+        assertTrue(queries().keySet().containsAll(declared), "Méthode d'AppointmentRepository absente du contrôle des plans");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> queriesUseIndexes() {
+        return queries().entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+                    commands.clear();
+                    query.getValue().run();
+                    assertFalse(commands.isEmpty(), "Aucune requête envoyée");
+
+                    for (BsonDocument command : commands) {
+                        List<String> stages = winningPlanStages(explain(command));
+                        assertTrue(stages.stream().noneMatch(FORBIDDEN_STAGES::contains),
+                                query.getKey() + " : plan " + stages + " pour " + command.toJson());
+                    }
+                }));
+    }
+
+    private static Document explain(BsonDocument command) {
+        BsonDocument query = command.clone();
+        // Champs de session / routage ajoutés par le driver, refusés dans explain
+        List.of("$db", "lsid", "$clusterTime", "txnNumber", "$readPreference", "apiVersion")
+                .forEach(query::remove);
+        BsonDocument explain = new BsonDocument("explain", query).append("verbosity", new BsonString("queryPlanner"));
+        return client.getDatabase(DATABASE).runCommand(explain);
+    }
+
+    private static List<String> winningPlanStages(Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain, stages);
+        return stages;
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if ("rejectedPlans".equals(key)) {
+                    return;
+                }
+                if ("stage".equals(key) && value instanceof String stage) {
+                    stages.add(stage);
+                } else {
+                    collectStages(value, stages);
+                }
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    /**
+     * Assez de docteurs, patients et statuts pour que l'index le plus sélectif soit préférable au parcours complet
+     */
+    private static List<Appointment> sampleAppointments() {
+        String[] statuses = {"PENDING", "SCHEDULED", "COMPLETED", "CANCELLED", "REJECTED"};
+        LocalDateTime start = LocalDateTime.now().minusDays(200);
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            appointments.add(Appointment.builder()
+                    .doctorId("doctor-" + (i % 10))
+                    .patientId("patient-" + (i % 50))
+                    .patientEmail("patient-" + (i % 50) + "@example.com")
+                    .appointmentDateTime(start.plusHours(i * 3L))
+                    .status(statuses[i % statuses.length])
+                    .build());
+        }
+        return appointments;
+    }
+}
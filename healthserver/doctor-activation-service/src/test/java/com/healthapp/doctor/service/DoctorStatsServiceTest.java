@@ -0,0 +1,168 @@
+package com.healthapp.doctor.service;
+
+import com.healthapp.doctor.config.MongoConfig;
+import com.healthapp.doctor.entity.Appointment;
+import com.healthapp.doctor.entity.Doctor;
+import com.healthapp.doctor.entity.DoctorAppointmentStats;
+import com.healthapp.doctor.entity.DoctorPatient;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DoctorStatsServiceTest {
+
+    private static final String DOCTOR = "doctor-1";
+
+    private MongoServer server;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private DoctorStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "doctor_test");
+        MongoConfig.ensureIndexes(mongoTemplate, DoctorPatient.class);
+        service = new DoctorStatsService(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void reconcileBetweenTheAppointmentWriteAndItsIncrementDoesNotCountItTwice() {
+        create("patient-1");
+
+        Long epoch = service.reconcileEpoch(DOCTOR);
+        Appointment appointment = mongoTemplate.insert(appointment("patient-2", "PENDING"));
+        // Réconciliation nocturne : elle voit déjà le nouveau rendez-vous
+        service.reconcile(DOCTOR);
+        service.recordCreated(appointment, epoch);
+
+        DoctorAppointmentStats stats = stats();
+        assertEquals(Map.of("PENDING", 2), stats.getByStatus());
+        assertEquals(2, stats.getUniquePatients());
+    }
+
+    @Test
+    void reconcileBeforeTheAppointmentWriteKeepsItsIncrement() {
+        create("patient-1");
+
+        Long epoch = service.reconcileEpoch(DOCTOR);
+        service.reconcile(DOCTOR);
+        Appointment appointment = mongoTemplate.insert(appointment("patient-2", "PENDING"));
+        service.recordCreated(appointment, epoch);
+
+        assertEquals(Map.of("PENDING", 2), stats().getByStatus());
+        assertEquals(2, stats().getUniquePatients());
+    }
+
+    @Test
+    void transitionsAreIncrementedOnTheDocumentReadBeforehand() {
+        Appointment appointment = create("patient-1");
+        long reconciled = stats().getReconcileEpoch();
+        long version = stats().getVersion();
+
+        Long epoch = service.reconcileEpoch(DOCTOR);
+        appointment.setStatus("SCHEDULED");
+        mongoTemplate.save(appointment);
+        service.recordTransition(appointment, "PENDING", epoch);
+
+        DoctorAppointmentStats stats = stats();
+        assertEquals(1, stats.getByStatus().get("SCHEDULED"));
+        assertEquals(0, stats.getByStatus().get("PENDING"));
+        assertEquals(reconciled, stats.getReconcileEpoch());
+        // Le $inc change la version : une réconciliation en cours recommencera son calcul
+        assertEquals(version + 1, stats.getVersion());
+    }
+
+    @Test
+    void patientsAreCountedOnceAndKeptOutOfTheStatsDocument() {
+        create("patient-1");
+        create("patient-1");
+        create("patient-2");
+
+        assertEquals(2, stats().getUniquePatients());
+        assertEquals(2, mongoTemplate.count(new Query(), DoctorPatient.class));
+        assertFalse(mongoTemplate.getCollection("doctor_appointment_stats").find().first().containsKey("patients"));
+        assertEquals(2, service.getDoctorStats(doctor()).getTotalPatients());
+    }
+
+    @Test
+    void legacyDocumentWithAPatientListIsRebuilt() {
+        mongoTemplate.insert(appointment("patient-1", "COMPLETED"));
+        mongoTemplate.getCollection("doctor_appointment_stats").insertOne(new Document("_id", DOCTOR)
+                .append("byStatus", new Document("COMPLETED", 1))
+                .append("patients", List.of("patient-1"))
+                .append("uniquePatients", 1)
+                .append("version", 7L));
+
+        create("patient-1");
+
+        Document stored = mongoTemplate.getCollection("doctor_appointment_stats").find().first();
+        assertFalse(stored.containsKey("patients"));
+        assertEquals(1, stats().getUniquePatients());
+        assertEquals(Map.of("COMPLETED", 1, "PENDING", 1), stats().getByStatus());
+    }
+
+    @Test
+    void removedPatientIsCountedAgainOnTheirNextAppointment() {
+        create("patient-1");
+        create("patient-2");
+
+        mongoTemplate.remove(Query.query(Criteria.where("patientId").is("patient-2")), Appointment.class);
+        service.removePatient("patient-2", List.of(DOCTOR));
+        assertEquals(1, stats().getUniquePatients());
+
+        create("patient-2");
+        assertEquals(2, stats().getUniquePatients());
+    }
+
+    /**
+     * Comme AppointmentService.createAppointment : epoch lu, rendez-vous écrit, puis $inc
+     */
+    private Appointment create(String patientId) {
+        Long epoch = service.reconcileEpoch(DOCTOR);
+        Appointment appointment = mongoTemplate.insert(appointment(patientId, "PENDING"));
+        service.recordCreated(appointment, epoch);
+        return appointment;
+    }
+
+    private static Appointment appointment(String patientId, String status) {
+        return Appointment.builder()
+                .doctorId(DOCTOR)
+                .patientId(patientId)
+                .appointmentDateTime(LocalDateTime.now().minusDays(40))
+                .status(status)
+                .build();
+    }
+
+    private DoctorAppointmentStats stats() {
+        return mongoTemplate.findById(DOCTOR, DoctorAppointmentStats.class);
+    }
+
+    private static Doctor doctor() {
+        Doctor doctor = new Doctor();
+        doctor.setId(DOCTOR);
+        return doctor;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.config.IngestExecutorConfig;
+import com.example.healthsync.config.MongoConversionsConfig;
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.BiometricMeasurementService;
+import com.example.healthsync.service.BiometricRollupService;
+import com.example.healthsync.service.IngestMetrics;
+import com.example.healthsync.service.TodayDataCache;
+import com.example.healthsync.service.VitalAnomalyService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion de bout en bout : JSON → saveBiometricData → bulk MongoDB.
+ * MongoDB est remplacé par mongo-java-server (en mémoire, même protocole filaire) :
+ * les chiffres comparent des versions du code entre elles, pas des temps de production.
+ * Les mêmes jours sont renvoyés à chaque appel : on mesure le cas courant du remplacement.
+ * Les services sont créés par un petit contexte Spring avec bootstrap.properties : mêmes réglages que l'application.
+ *
+ * Lancer avec : java -jar target/benchmarks.jar EndToEndIngestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EndToEndIngestBenchmark {
+
+    private MongoServer server;
+    private MongoClient client;
+    private AnnotationConfigApplicationContext context;
+    private BiometricDataService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+
+        context = new AnnotationConfigApplicationContext();
+        // Durées (PT5M...) et enums des @Value, convertis comme par Spring Boot
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getBeanFactory().registerSingleton("mongoClient", client);
+        context.register(IngestContext.class);
+        context.refresh();
+        service = context.getBean(BiometricDataService.class);
+    }
+
+    /**
+     * Le pipeline d'ingestion seul : pas de contrôleurs, de file d'attente ni de tâches planifiées
+     */
+    @Configuration
+    @PropertySource("classpath:bootstrap.properties")
+    @EnableMongoRepositories(basePackageClasses = BiometricDataRepository.class)
+    @Import({IngestExecutorConfig.class, BiometricDataService.class, BiometricMeasurementService.class,
+            BiometricRollupService.class, TodayDataCache.class, VitalAnomalyService.class, IngestMetrics.class})
+    static class IngestContext {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient) {
+            return new SimpleMongoClientDatabaseFactory(mongoClient, "healthsync_bench");
+        }
+
+        /**
+         * Même convertisseur que l'application (MongoConversionsConfig)
+         */
+        @Bean
+        MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory) {
+            MongoCustomConversions conversions = MongoConversionsConfig.customConversions();
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            mappingContext.afterPropertiesSet();
+
+            MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory), mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            return new MongoTemplate(databaseFactory, converter);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public BiometricIngestResult ingest(PayloadState state) throws Exception {
+        HealthData healthData = state.objectMapper.readValue(state.json, HealthData.class);
+        return service.saveBiometricData(healthData);
+    }
+}
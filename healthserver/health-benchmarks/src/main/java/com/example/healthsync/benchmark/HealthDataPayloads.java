@@ -0,0 +1,154 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.util.HealthTime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Générateur de payloads Health Connect synthétiques, proches de ce qu'envoie l'app Android :
+ * pas et distance par quart d'heure, fréquence cardiaque toutes les 5 minutes,
+ * quelques mesures ponctuelles (SpO2, température, tension, poids...).
+ * La graine est fixe pour que deux exécutions comparent les mêmes données.
+ */
+public final class HealthDataPayloads {
+
+    public static final String EMAIL = "bench.user@healthapp.com";
+
+    private HealthDataPayloads() {
+    }
+
+    /**
+     * @param days                nombre de jours envoyés
+     * @param samplesPerHeartRate échantillons par enregistrement de 5 minutes (1 = montre peu active, 60 = capteur continu)
+     */
+    public static HealthData generate(int days, int samplesPerHeartRate) {
+        Random random = new Random(42);
+        LocalDate firstDay = LocalDate.of(2025, 10, 1);
+
+        List<HealthData.DailyData> dailyData = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            dailyData.add(day(random, firstDay.plusDays(d), samplesPerHeartRate));
+        }
+
+        HealthData healthData = new HealthData();
+        healthData.setEmail(EMAIL);
+        healthData.setDailyData(dailyData);
+        return healthData;
+    }
+
+    private static HealthData.DailyData day(Random random, LocalDate date, int samplesPerHeartRate) {
+        LocalDateTime midnight = date.atStartOfDay();
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date.toString());
+
+        List<BiometricData.StepRecord> steps = new ArrayList<>();
+        List<BiometricData.DistanceRecord> distance = new ArrayList<>();
+        int totalSteps = 0;
+        double totalMeters = 0;
+        for (int q = 0; q < 96; q++) {
+            String start = time(midnight.plusMinutes(q * 15L));
+            String end = time(midnight.plusMinutes(q * 15L + 15));
+            long count = random.nextInt(400);
+            double meters = count * 0.75;
+            totalSteps += count;
+            totalMeters += meters;
+            steps.add(new BiometricData.StepRecord(count, start, end));
+            distance.add(new BiometricData.DistanceRecord(meters, start, end));
+        }
+
+        List<BiometricData.HeartRateRecord> heartRate = new ArrayList<>();
+        long minHr = Long.MAX_VALUE;
+        long maxHr = Long.MIN_VALUE;
+        long sumHr = 0;
+        int hrCount = 0;
+        for (int r = 0; r < 288; r++) {
+            List<Long> samples = new ArrayList<>(samplesPerHeartRate);
+            for (int s = 0; s < samplesPerHeartRate; s++) {
+                long bpm = 55 + random.nextInt(60);
+                samples.add(bpm);
+                minHr = Math.min(minHr, bpm);
+                maxHr = Math.max(maxHr, bpm);
+                sumHr += bpm;
+                hrCount++;
+            }
+            heartRate.add(new BiometricData.HeartRateRecord(samples,
+                    time(midnight.plusMinutes(r * 5L)), time(midnight.plusMinutes(r * 5L + 5))));
+        }
+
+        List<BiometricData.SleepRecord> sleep = List.of(
+                new BiometricData.SleepRecord("Sommeil léger", time(midnight), time(midnight.plusHours(3)), 180L),
+                new BiometricData.SleepRecord("Sommeil profond", time(midnight.plusHours(3)), time(midnight.plusHours(5)), 120L),
+                new BiometricData.SleepRecord("REM", time(midnight.plusHours(5)), time(midnight.plusHours(7)), 120L));
+
+        List<BiometricData.ExerciseRecord> exercise = new ArrayList<>();
+        for (int e = 0; e < 2; e++) {
+            LocalDateTime start = midnight.plusHours(8 + e * 10L);
+            exercise.add(new BiometricData.ExerciseRecord(
+                    "Course", 56, "RUNNING", time(start), time(start.plusMinutes(45)), 45L,
+                    5200L, 6100.0, "6.10",
+                    420, 510,
+                    142, 110, 171,
+                    160, 140, 178,
+                    "8.13", "12.40", "5.02",
+                    "1.12", "0.95", "1.31",
+                    210));
+        }
+
+        List<BiometricData.OxygenSaturationRecord> oxygen = new ArrayList<>();
+        for (int h = 0; h < 24; h++) {
+            oxygen.add(new BiometricData.OxygenSaturationRecord(94 + random.nextDouble() * 5, time(midnight.plusHours(h))));
+        }
+
+        List<BiometricData.BodyTemperatureRecord> temperature = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            temperature.add(new BiometricData.BodyTemperatureRecord(36.2 + random.nextDouble(), time(midnight.plusHours(h * 6L))));
+        }
+
+        List<BiometricData.BloodPressureRecord> bloodPressure = new ArrayList<>();
+        for (int h = 0; h < 3; h++) {
+            bloodPressure.add(new BiometricData.BloodPressureRecord(
+                    110 + random.nextInt(25) * 1.0, 70 + random.nextInt(15) * 1.0, time(midnight.plusHours(8 + h * 5L))));
+        }
+
+        List<BiometricData.HydrationRecord> hydration = new ArrayList<>();
+        for (int h = 0; h < 8; h++) {
+            hydration.add(new BiometricData.HydrationRecord(250.0, time(midnight.plusHours(8 + h))));
+        }
+
+        day.setSteps(steps);
+        day.setTotalSteps(totalSteps);
+        day.setHeartRate(heartRate);
+        day.setMinHeartRate((int) minHr);
+        day.setMaxHeartRate((int) maxHr);
+        day.setAvgHeartRate((int) (sumHr / hrCount));
+        day.setDistance(distance);
+        day.setTotalDistanceKm(String.format(Locale.ROOT, "%.2f", totalMeters / 1000));
+        day.setSleep(sleep);
+        day.setTotalSleepHours("7.00");
+        day.setExercise(exercise);
+        day.setOxygenSaturation(oxygen);
+        day.setBodyTemperature(temperature);
+        day.setBloodPressure(bloodPressure);
+        day.setWeight(List.of(new BiometricData.WeightRecord(72.4, time(midnight.plusHours(7)))));
+        day.setHeight(List.of(new BiometricData.HeightRecord(1.78, time(midnight.plusHours(7)))));
+        day.setHydration(hydration);
+        day.setTotalHydrationLiters("2.00");
+        day.setStressLevel("Modéré");
+        day.setStressScore(45);
+        return day;
+    }
+
+    /**
+     * Horodatage au format de l'app ("yyyy-MM-dd HH:mm:ss"), pas l'ISO de LocalDateTime.toString()
+     */
+    private static String time(LocalDateTime time) {
+        return time.format(HealthTime.CLIENT_FORMAT);
+    }
+}
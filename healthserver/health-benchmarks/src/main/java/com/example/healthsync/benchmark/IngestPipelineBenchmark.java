@@ -0,0 +1,97 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.config.MongoConversionsConfig;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.service.BiometricDataMapper;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Étapes CPU du pipeline d'ingestion, mesurées séparément :
+ * JSON → HealthData (Jackson), HealthData → BiometricData, BiometricData → BSON (conversion Spring Data + encodage).
+ *
+ * Lancer avec : java -jar target/benchmarks.jar IngestPipelineBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestPipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Converted {
+
+        public MappingMongoConverter converter;
+        public Codec<Document> documentCodec;
+        public List<BiometricData> documents;
+
+        /**
+         * Même configuration que le convertisseur de MongoTemplate (conversions de l'application, @ValueConverter compris)
+         */
+        @Setup(Level.Trial)
+        public void setUp(PayloadState state) {
+            MongoCustomConversions conversions = MongoConversionsConfig.customConversions();
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            mappingContext.afterPropertiesSet();
+
+            converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+            LocalDateTime receivedAt = LocalDateTime.now();
+            documents = new ArrayList<>();
+            for (HealthData.DailyData day : state.payload.getDailyData()) {
+                documents.add(BiometricDataMapper.toBiometricData(state.payload.getEmail(), receivedAt, day));
+            }
+        }
+    }
+
+    @Benchmark
+    public HealthData deserialize(PayloadState state) throws Exception {
+        return state.objectMapper.readValue(state.json, HealthData.class);
+    }
+
+    @Benchmark
+    public void convert(PayloadState state, Blackhole blackhole) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        for (HealthData.DailyData day : state.payload.getDailyData()) {
+            blackhole.consume(BiometricDataMapper.toBiometricData(state.payload.getEmail(), receivedAt, day));
+        }
+    }
+
+    @Benchmark
+    public void bsonEncode(Converted converted, Blackhole blackhole) {
+        for (BiometricData data : converted.documents) {
+            Document document = new Document();
+            converted.converter.write(data, document);
+            blackhole.consume(new RawBsonDocument(document, converted.documentCodec));
+        }
+    }
+}
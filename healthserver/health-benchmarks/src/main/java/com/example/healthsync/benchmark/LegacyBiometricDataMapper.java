@@ -0,0 +1,113 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * Ancienne conversion de saveBiometricData, conservée uniquement comme référence de benchmark :
+ * chaque mesure du payload était recopiée dans une nouvelle instance BiometricData.*.
+ */
+final class LegacyBiometricDataMapper {
+
+    private LegacyBiometricDataMapper() {
+    }
+
+    static BiometricData toBiometricData(String email, LocalDateTime receivedAt, HealthData.DailyData day) {
+        BiometricData data = new BiometricData();
+
+        data.setEmail(email);
+        data.setReceivedAt(receivedAt);
+        data.setDate(day.getDate());
+
+        data.setTotalSteps(day.getTotalSteps());
+        data.setAvgHeartRate(day.getAvgHeartRate());
+        data.setMinHeartRate(day.getMinHeartRate());
+        data.setMaxHeartRate(day.getMaxHeartRate());
+        data.setTotalDistanceKm(day.getTotalDistanceKm());
+        data.setTotalSleepHours(day.getTotalSleepHours());
+        data.setTotalHydrationLiters(day.getTotalHydrationLiters());
+        data.setStressLevel(day.getStressLevel());
+        data.setStressScore(day.getStressScore());
+
+        if (day.getSteps() != null) {
+            data.setSteps(day.getSteps().stream()
+                    .map(s -> new BiometricData.StepRecord(s.getCount(), s.getStartTime(), s.getEndTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getHeartRate() != null) {
+            data.setHeartRate(day.getHeartRate().stream()
+                    .map(hr -> new BiometricData.HeartRateRecord(hr.getSamples(), hr.getStartTime(), hr.getEndTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getDistance() != null) {
+            data.setDistance(day.getDistance().stream()
+                    .map(d -> new BiometricData.DistanceRecord(d.getDistanceMeters(), d.getStartTime(), d.getEndTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getSleep() != null) {
+            data.setSleep(day.getSleep().stream()
+                    .map(s -> new BiometricData.SleepRecord(s.getTitle(), s.getStartTime(), s.getEndTime(), s.getDurationMinutes()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getExercise() != null) {
+            data.setExercise(day.getExercise().stream()
+                    .map(e -> new BiometricData.ExerciseRecord(
+                            e.getTitle(), e.getExerciseType(), e.getExerciseTypeName(),
+                            e.getStartTime(), e.getEndTime(), e.getDurationMinutes(),
+                            e.getSteps(), e.getDistanceMeters(), e.getDistanceKm(),
+                            e.getActiveCalories(), e.getTotalCalories(),
+                            e.getAvgHeartRate(), e.getMinHeartRate(), e.getMaxHeartRate(),
+                            e.getAvgCadence(), e.getMinCadence(), e.getMaxCadence(),
+                            e.getAvgSpeedKmh(), e.getMaxSpeedKmh(), e.getMinSpeedKmh(),
+                            e.getAvgStrideLengthMeters(), e.getMinStrideLengthMeters(), e.getMaxStrideLengthMeters(),
+                            e.getAvgPowerWatts()
+                    ))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getOxygenSaturation() != null) {
+            data.setOxygenSaturation(day.getOxygenSaturation().stream()
+                    .map(o2 -> new BiometricData.OxygenSaturationRecord(o2.getPercentage(), o2.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getBodyTemperature() != null) {
+            data.setBodyTemperature(day.getBodyTemperature().stream()
+                    .map(temp -> new BiometricData.BodyTemperatureRecord(temp.getTemperature(), temp.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getBloodPressure() != null) {
+            data.setBloodPressure(day.getBloodPressure().stream()
+                    .map(bp -> new BiometricData.BloodPressureRecord(bp.getSystolic(), bp.getDiastolic(), bp.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getWeight() != null) {
+            data.setWeight(day.getWeight().stream()
+                    .map(w -> new BiometricData.WeightRecord(w.getWeight(), w.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getHeight() != null) {
+            data.setHeight(day.getHeight().stream()
+                    .map(h -> new BiometricData.HeightRecord(h.getHeight(), h.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (day.getHydration() != null) {
+            data.setHydration(day.getHydration().stream()
+                    .map(hyd -> new BiometricData.HydrationRecord(hyd.getVolumeMl(), hyd.getTime()))
+                    .collect(Collectors.toList()));
+        }
+
+        return data;
+    }
+}
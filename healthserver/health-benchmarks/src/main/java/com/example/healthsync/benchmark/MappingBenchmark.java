@@ -0,0 +1,60 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.service.BiometricDataMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion HealthData → BiometricData sur un envoi réaliste de 7 jours :
+ * ancienne recopie record par record contre le modèle partagé.
+ *
+ * Lancer avec : java -jar target/benchmarks.jar MappingBenchmark -prof gc
+ * (le profileur gc affiche les octets alloués par opération)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private HealthData payload;
+    private LocalDateTime receivedAt;
+
+    @Setup
+    public void setUp() {
+        payload = HealthDataPayloads.generate(7, 5);
+        receivedAt = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public void legacyCopy(Blackhole blackhole) {
+        for (HealthData.DailyData day : payload.getDailyData()) {
+            BiometricData data = LegacyBiometricDataMapper.toBiometricData(payload.getEmail(), receivedAt, day);
+            blackhole.consume(data);
+        }
+    }
+
+    @Benchmark
+    public void sharedModel(Blackhole blackhole) {
+        for (HealthData.DailyData day : payload.getDailyData()) {
+            BiometricData data = BiometricDataMapper.toBiometricData(payload.getEmail(), receivedAt, day);
+            blackhole.consume(data);
+        }
+    }
+}
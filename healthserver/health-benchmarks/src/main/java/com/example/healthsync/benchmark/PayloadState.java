@@ -0,0 +1,34 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Payloads partagés par les benchmarks du pipeline d'ingestion :
+ * 1, 7 ou 30 jours ; fréquence cardiaque sparse (1 échantillon / 5 min) ou dense (60 / 5 min)
+ */
+@State(Scope.Benchmark)
+public class PayloadState {
+
+    @Param({"1", "7", "30"})
+    public int days;
+
+    @Param({"sparse", "dense"})
+    public String heartRate;
+
+    public ObjectMapper objectMapper;
+    public HealthData payload;
+    public byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        payload = HealthDataPayloads.generate(days, "dense".equals(heartRate) ? 60 : 1);
+        json = objectMapper.writeValueAsBytes(payload);
+    }
+}
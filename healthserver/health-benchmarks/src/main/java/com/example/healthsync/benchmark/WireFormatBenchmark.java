@@ -0,0 +1,95 @@
+package com.example.healthsync.benchmark;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.CursorPage;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.service.BiometricDataMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON contre CBOR et Smile sur les mêmes documents : lecture / écriture d'un envoi HealthData
+ * et écriture d'une page de GET /fetch/user/{userId}.
+ * Les tailles des documents encodés sont affichées au lancement de chaque configuration.
+ *
+ * Lancer avec : java -jar target/benchmarks.jar WireFormatBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Encoded {
+
+        @Param({"json", "cbor", "smile"})
+        public String format;
+
+        public ObjectMapper mapper;
+        public byte[] upload;
+        public CursorPage<BiometricData> page;
+
+        @Setup(Level.Trial)
+        public void setUp(PayloadState state) throws Exception {
+            mapper = switch (format) {
+                case "cbor" -> new ObjectMapper(new CBORFactory());
+                case "smile" -> new ObjectMapper(new SmileFactory());
+                default -> new ObjectMapper();
+            };
+            // Comme le ObjectMapper de Spring Boot : dates ISO plutôt que tableaux
+            mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            upload = mapper.writeValueAsBytes(state.payload);
+
+            LocalDateTime receivedAt = LocalDateTime.now();
+            List<BiometricData> documents = new ArrayList<>();
+            for (HealthData.DailyData day : state.payload.getDailyData()) {
+                documents.add(BiometricDataMapper.toBiometricData(state.payload.getEmail(), receivedAt, day));
+            }
+            page = CursorPage.<BiometricData>builder()
+                    .content(documents)
+                    .size(documents.size())
+                    .hasMore(false)
+                    .build();
+
+            System.out.printf("%n%s, %d jours, fréquence cardiaque %s : envoi %d octets, page %d octets%n",
+                    format, state.days, state.heartRate, upload.length, mapper.writeValueAsBytes(page).length);
+        }
+    }
+
+    @Benchmark
+    public HealthData readUpload(Encoded encoded) throws Exception {
+        return encoded.mapper.readValue(encoded.upload, HealthData.class);
+    }
+
+    @Benchmark
+    public byte[] writeUpload(Encoded encoded, PayloadState state) throws Exception {
+        return encoded.mapper.writeValueAsBytes(state.payload);
+    }
+
+    @Benchmark
+    public byte[] writePage(Encoded encoded) throws Exception {
+        return encoded.mapper.writeValueAsBytes(encoded.page);
+    }
+}
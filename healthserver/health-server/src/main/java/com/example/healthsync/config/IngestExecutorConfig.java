@@ -0,0 +1,37 @@
+package com.example.healthsync.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class IngestExecutorConfig {
+
+    /**
+     * Pool borné des lots de jours écrits en parallèle (BiometricDataService).
+     * File pleine : le thread de la requête écrit lui-même son lot, ce qui freine l'envoi.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ingestExecutor(MeterRegistry meterRegistry,
+                                          @Value("${healthsync.ingest.parallel.threads:4}") int threads) {
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(poolSize * 8),
+                task -> {
+                    Thread thread = new Thread(task, "ingest-day-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "ingest");
+    }
+}
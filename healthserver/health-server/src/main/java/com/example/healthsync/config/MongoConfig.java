@@ -0,0 +1,124 @@
+package com.example.healthsync.config;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.model.BiometricRollup;
+import com.example.healthsync.model.StorageBackend;
+import com.example.healthsync.model.VitalAlert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${healthsync.storage.backend:DOCUMENT}")
+    private StorageBackend storageBackend;
+
+    @Value("${healthsync.migration.dedupe-days.enabled:false}")
+    private boolean dedupeDaysEnabled;
+
+    /**
+     * Crée les index déclarés sur BiometricData / BiometricRollup / VitalAlert (et la collection time-series si activée).
+     * L'index unique (email, date) ne peut être posé que si la collection ne contient plus de doublons :
+     * sans healthsync.migration.dedupe-days.enabled, les doublons sont seulement listés et l'index n'est pas posé.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initIndexes() {
+        try {
+            if (resolveDuplicateDays()) {
+                ensureIndexes(BiometricData.class);
+            }
+            ensureIndexes(BiometricRollup.class);
+            ensureIndexes(VitalAlert.class);
+
+            log.info("✅ Index biometric_data / biometric_rollups / vital_alerts vérifiés");
+        } catch (Exception e) {
+            log.error("❌ Impossible de créer les index biometric_data: {}", e.getMessage());
+        }
+
+        if (storageBackend != StorageBackend.DOCUMENT) {
+            initMeasurementCollection();
+        }
+    }
+
+    /**
+     * La collection time-series doit être créée explicitement (options timeField / metaField de @TimeSeries)
+     */
+    private void initMeasurementCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(BiometricMeasurement.class)) {
+                mongoTemplate.createCollection(BiometricMeasurement.class);
+                log.info("✅ Collection time-series biometric_measurements créée");
+            }
+
+            ensureIndexes(BiometricMeasurement.class);
+        } catch (Exception e) {
+            log.error("❌ Impossible d'initialiser biometric_measurements: {}", e.getMessage());
+        }
+    }
+
+    private void ensureIndexes(Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity)
+                .forEach(indexOps::ensureIndex);
+    }
+
+    /**
+     * Migration ponctuelle : pour chaque (email, date) en double, seule la réception la plus récente est gardée.
+     * Désactivée par défaut : les documents qui seraient supprimés sont alors journalisés (simulation).
+     * @return true si la collection ne contient plus de doublons
+     */
+    private boolean resolveDuplicateDays() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(Sort.Direction.DESC, "receivedAt"),
+                Aggregation.group("email", "date").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        List<Object> obsoleteIds = new ArrayList<>();
+        mongoTemplate.aggregate(aggregation, BiometricData.class, Document.class)
+                .forEach(group -> {
+                    List<?> ids = group.getList("ids", Object.class);
+                    Document key = group.get("_id", Document.class);
+                    log.warn("🧹 Doublon biometric_data {} / {} : conservé {}, {} {}",
+                            key.get("email"), key.get("date"), ids.get(0),
+                            dedupeDaysEnabled ? "supprimés" : "à supprimer", ids.subList(1, ids.size()));
+                    obsoleteIds.addAll(ids.subList(1, ids.size()));
+                });
+
+        if (obsoleteIds.isEmpty()) {
+            return true;
+        }
+        if (!dedupeDaysEnabled) {
+            // Lecture du jour par findTop...OrderByReceivedAtDesc : le document le plus récent (celui qu'un REPLACE vient d'écrire) est servi
+            log.warn("⚠️ {} doublons (email, date) dans biometric_data, index unique non créé : "
+                    + "activer healthsync.migration.dedupe-days.enabled pour les supprimer", obsoleteIds.size());
+            return false;
+        }
+
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(obsoleteIds)), BiometricData.class);
+        log.warn("🧹 {} doublons (email, date) supprimés de biometric_data", obsoleteIds.size());
+        return true;
+    }
+}
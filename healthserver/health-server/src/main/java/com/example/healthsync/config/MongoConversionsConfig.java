@@ -0,0 +1,30 @@
+package com.example.healthsync.config;
+
+import com.example.healthsync.util.CachedPropertyValueConversions;
+import com.example.healthsync.util.HealthTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.time.ZoneId;
+
+@Configuration
+public class MongoConversionsConfig {
+
+    /**
+     * Remplace la résolution par défaut des @ValueConverter (recalculée à chaque propriété écrite)
+     * par une résolution mémorisée par propriété : c'était le premier poste de l'encodage BSON d'un envoi.
+     * Le fuseau des horodatages stockés en Date est fixé ici, avant le premier accès MongoDB.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(@Value("${healthsync.time.zone:UTC}") ZoneId zone) {
+        HealthTime.useZone(zone);
+        return customConversions();
+    }
+
+    public static MongoCustomConversions customConversions() {
+        return MongoCustomConversions.create(adapter ->
+                adapter.setPropertyValueConversions(new CachedPropertyValueConversions()));
+    }
+}
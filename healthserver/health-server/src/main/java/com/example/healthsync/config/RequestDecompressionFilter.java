@@ -0,0 +1,267 @@
+package com.example.healthsync.config;
+
+import com.example.healthsync.service.IngestMetrics;
+import io.airlift.compress.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bodies compressés par l'app (Content-Encoding: gzip ou zstd) : décompressés au fil de la lecture,
+ * le contrôleur et le parser streaming voient le JSON sans rien changer.
+ * Protection contre les bombes de décompression : taille décompressée bornée (max-bytes)
+ * et taux de compression borné (max-ratio) dès le premier Mo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    /**
+     * Attribut de requête : octets décompressés lus jusqu'ici (AtomicLong)
+     */
+    public static final String DECOMPRESSED_BYTES = RequestDecompressionFilter.class.getName() + ".decompressedBytes";
+
+    private static final long RATIO_CHECK_BYTES = 1024 * 1024;
+
+    private final IngestMetrics ingestMetrics;
+
+    @Value("${healthsync.ingest.compression.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${healthsync.ingest.compression.max-ratio:200}")
+    private long maxRatio;
+
+    /**
+     * Limite de décompression dépassée (le contrôleur répond 413)
+     */
+    public static class PayloadTooLargeException extends IOException {
+        public PayloadTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Taille du body reçu : décompressée si le body était compressé
+     */
+    public static long bodyBytes(HttpServletRequest request) {
+        if (request.getAttribute(DECOMPRESSED_BYTES) instanceof AtomicLong decompressed) {
+            return decompressed.get();
+        }
+        return request.getContentLengthLong();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return encoding == null || encoding.isBlank() || "identity".equalsIgnoreCase(encoding.trim());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        if (!"gzip".equals(encoding) && !"zstd".equals(encoding)) {
+            response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("❌ Content-Encoding non supporté: " + encoding + " (gzip ou zstd)");
+            return;
+        }
+
+        DecompressedRequest decompressed = new DecompressedRequest(request, encoding);
+        try {
+            chain.doFilter(decompressed, response);
+        } finally {
+            decompressed.record();
+        }
+    }
+
+    private class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final AtomicLong decodedBytes = new AtomicLong();
+        private CountingInputStream wire;
+        private ServletInputStream body;
+
+        DecompressedRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+            request.setAttribute(DECOMPRESSED_BYTES, decodedBytes);
+        }
+
+        /**
+         * Le décompresseur n'est créé qu'à la première lecture : une en-tête gzip invalide
+         * remonte comme une erreur de lecture du body, traitée par le contrôleur
+         */
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                wire = new CountingInputStream(super.getInputStream());
+                InputStream decoded = "gzip".equals(encoding) ? new GZIPInputStream(wire, 8192) : new ZstdInputStream(wire);
+                body = new DecodingInputStream(encoding, decoded, wire, decodedBytes);
+            }
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String charset = getCharacterEncoding();
+            Charset decoded = charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), decoded));
+        }
+
+        // Taille décompressée inconnue à l'avance : le body se lit jusqu'à la fin du flux
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHidden(name))
+                    .toList());
+        }
+
+        private boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+
+        void record() {
+            if (wire != null) {
+                ingestMetrics.recordCompression(encoding, wire.count, decodedBytes.get());
+            }
+        }
+    }
+
+    private class DecodingInputStream extends ServletInputStream {
+
+        private final String encoding;
+        private final InputStream decoded;
+        private final CountingInputStream wire;
+        private final AtomicLong decodedBytes;
+        private boolean finished;
+
+        DecodingInputStream(String encoding, InputStream decoded, CountingInputStream wire, AtomicLong decodedBytes) {
+            this.encoding = encoding;
+            this.decoded = decoded;
+            this.wire = wire;
+            this.decodedBytes = decodedBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = decoded.read(buffer, offset, length);
+            if (n == -1) {
+                finished = true;
+                return -1;
+            }
+            check(decodedBytes.addAndGet(n));
+            return n;
+        }
+
+        private void check(long total) throws PayloadTooLargeException {
+            if (total > maxBytes) {
+                log.warn("🧨 Body décompressé au-delà de {} octets ({}), lecture interrompue", maxBytes, encoding);
+                throw new PayloadTooLargeException("Body décompressé supérieur à " + maxBytes + " octets");
+            }
+            if (total > RATIO_CHECK_BYTES && total > wire.count * maxRatio) {
+                log.warn("🧨 Taux de compression supérieur à {} ({} → {} octets), lecture interrompue", maxRatio, wire.count, total);
+                throw new PayloadTooLargeException("Taux de compression anormal (> " + maxRatio + ")");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Lecture non bloquante non supportée pour un body compressé");
+        }
+
+        @Override
+        public void close() throws IOException {
+            decoded.close();
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -1,15 +1,37 @@
 package com.example.healthsync.controller;
 
+import com.example.healthsync.config.RequestDecompressionFilter;
 import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.model.CursorPage;
 import com.example.healthsync.model.HealthData;
-import com.example.healthsync.model.HealthData.*;
+import com.example.healthsync.model.TrendBucket;
+import com.example.healthsync.model.TrendGranularity;
+import com.example.healthsync.model.VitalAlert;
 import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.BiometricMeasurementService;
+import com.example.healthsync.service.BiometricRollupService;
+import com.example.healthsync.service.HealthDataStreamService;
+import com.example.healthsync.service.HealthSyncService;
+import com.example.healthsync.service.IngestMetrics;
+import com.example.healthsync.service.IngestQueueService;
+import com.example.healthsync.service.UploadCoalescer;
+import com.example.healthsync.service.VitalAnomalyService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -19,7 +41,18 @@ import java.util.List;
 @Slf4j
 public class HealthDataController {
 
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BiometricDataService biometricDataService;
+    private final HealthDataStreamService healthDataStreamService;
+    private final BiometricMeasurementService biometricMeasurementService;
+    private final BiometricRollupService biometricRollupService;
+    private final IngestMetrics ingestMetrics;
+    private final IngestQueueService ingestQueueService;
+    private final HealthSyncService healthSyncService;
+    private final VitalAnomalyService vitalAnomalyService;
+    private final UploadCoalescer uploadCoalescer;
 
     @GetMapping
     public ResponseEntity<String> testConnection() {
@@ -27,207 +60,150 @@ public class HealthDataController {
     }
 
     @PostMapping
-    public ResponseEntity<String> receiveHealthData(@RequestBody HealthData healthData) {
+    public ResponseEntity<String> receiveHealthData(@RequestBody HealthData healthData, HttpServletRequest request) {
         try {
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  🔔 DONNÉES HEALTH CONNECT REÇUES DEPUIS ANDROID          ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
-
-            // ✅ SAUVEGARDE DANS MONGODB
-            List<BiometricData> savedData = biometricDataService.saveBiometricData(healthData);
-            String userEmail = healthData.getEmail();
-
-            System.out.println("💾 DONNÉES SAUVEGARDÉES DANS MONGODB");
-            System.out.println("   • Email utilisateur: " + userEmail);
-            System.out.println("   • Nombre de jours: " + savedData.size());
-            System.out.println("   • IDs MongoDB: ");
-            savedData.forEach(data ->
-                    System.out.println("      - " + data.getDate() + " → " + data.getId())
-            );
-            System.out.println();
-
-            // ✅ Validation des données
-            List<DailyData> dailyDataList = healthData.getDailyData();
-            if (dailyDataList == null || dailyDataList.isEmpty()) {
-                return ResponseEntity.badRequest().body("❌ Format de données invalide: dailyData vide");
-            }
+            // ✅ SAUVEGARDE DANS MONGODB (envois rapprochés du même utilisateur regroupés)
+            BiometricIngestResult result = uploadCoalescer.save(healthData);
+            return ingestResponse(result, request);
 
-            int totalDataPoints = 0;
-
-            // ✅ Parcours direct des données avec getters
-            for (DailyData day : dailyDataList) {
-                String date = day.getDate();
-
-                System.out.println("\n╭─────────────────────────────────────────────────────────────╮");
-                System.out.println("│  📅 DATE: " + date + "                                   │");
-                System.out.println("╰─────────────────────────────────────────────────────────────╯\n");
-
-                // 👣 STEPS
-                Integer totalSteps = day.getTotalSteps();
-                if (totalSteps != null && totalSteps > 0) {
-                    System.out.println("👣 STEPS: " + totalSteps + " pas");
-                    totalDataPoints++;
-                }
-
-                // ❤️ HEART RATE
-                Integer avgHR = day.getAvgHeartRate();
-                if (avgHR != null && avgHR > 0) {
-                    Integer minHR = day.getMinHeartRate();
-                    Integer maxHR = day.getMaxHeartRate();
-
-                    System.out.println("❤️  HEART RATE:");
-                    System.out.println("   • Moyenne: " + avgHR + " bpm");
-                    if (minHR != null && maxHR != null) {
-                        System.out.println("   • Min: " + minHR + " bpm | Max: " + maxHR + " bpm");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 📏 DISTANCE
-                String distKm = day.getTotalDistanceKm();
-                if (distKm != null && !distKm.equals("0.00")) {
-                    System.out.println("📏 DISTANCE: " + distKm + " km");
-                    totalDataPoints++;
-                }
-
-                // 💤 SLEEP
-                String sleepHours = day.getTotalSleepHours();
-                List<SleepRecord> sleepRecords = day.getSleep();
-                if (sleepHours != null && sleepRecords != null && !sleepRecords.isEmpty()) {
-                    System.out.println("💤 SOMMEIL: " + sleepHours + " heures");
-
-                    for (SleepRecord sleep : sleepRecords) {
-                        System.out.println("   • " + sleep.getTitle() + ": " +
-                                sleep.getStartTime() + " → " + sleep.getEndTime() +
-                                " (" + sleep.getDurationMinutes() + " min)");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 🏋️ EXERCISE
-                List<ExerciseRecord> exercises = day.getExercise();
-                if (exercises != null && !exercises.isEmpty()) {
-                    System.out.println("\n🏋️  EXERCICES (" + exercises.size() + " sessions):");
-
-                    for (int i = 0; i < exercises.size(); i++) {
-                        ExerciseRecord ex = exercises.get(i);
-
-                        System.out.println("\n   ┌─ Session " + (i + 1) + " ─────────────────────────────");
-                        System.out.println("   │ 🏃 Type: " + ex.getExerciseTypeName());
-                        System.out.println("   │ ⏱️  Durée: " + ex.getDurationMinutes() + " minutes");
-                        System.out.println("   │ 🕐 Début: " + ex.getStartTime());
-
-                        if (ex.getDistanceKm() != null && !ex.getDistanceKm().equals("0.00")) {
-                            System.out.println("   │ 📏 Distance: " + ex.getDistanceKm() + " km");
-                        }
-                        if (ex.getSteps() != null && ex.getSteps() > 0) {
-                            System.out.println("   │ 👣 Pas: " + ex.getSteps());
-                        }
-                        if (ex.getActiveCalories() != null && ex.getActiveCalories() > 0) {
-                            System.out.println("   │ 🔥 Calories: " + ex.getActiveCalories() + " kcal");
-                        }
-                        if (ex.getAvgHeartRate() != null && ex.getAvgHeartRate() > 0) {
-                            System.out.println("   │ ❤️  BPM: " + ex.getAvgHeartRate() + " bpm");
-                        }
-
-                        // Métriques avancées
-                        if (ex.getAvgSpeedKmh() != null) {
-                            System.out.println("   │ 🚀 Vitesse moy: " + ex.getAvgSpeedKmh() + " km/h");
-                        }
-                        if (ex.getAvgCadence() != null && ex.getAvgCadence() > 0) {
-                            System.out.println("   │ 🎯 Cadence: " + ex.getAvgCadence() + " rpm");
-                        }
-                        if (ex.getAvgPowerWatts() != null && ex.getAvgPowerWatts() > 0) {
-                            System.out.println("   │ ⚡ Puissance: " + ex.getAvgPowerWatts() + " W");
-                        }
-
-                        System.out.println("   └────────────────────────────────────────────");
-                    }
-                    totalDataPoints += exercises.size();
-                }
-
-                // 💧 HYDRATION
-                String hydrationLiters = day.getTotalHydrationLiters();
-                List<HydrationRecord> hydrationRecords = day.getHydration();
-                if (hydrationLiters != null && hydrationRecords != null && !hydrationRecords.isEmpty()) {
-                    System.out.println("\n💧 HYDRATATION: " + hydrationLiters + " L (" +
-                            hydrationRecords.size() + " prises)");
-                    totalDataPoints++;
-                }
-
-                // 😰 STRESS
-                String stressLevel = day.getStressLevel();
-                Integer stressScore = day.getStressScore();
-                if (stressLevel != null && stressScore != null) {
-                    System.out.println("😰 STRESS: " + stressLevel + " (score: " + stressScore + ")");
-                    totalDataPoints++;
-                }
-
-                // 🫁 OXYGEN SATURATION
-                List<OxygenSaturationRecord> oxygenRecords = day.getOxygenSaturation();
-                if (oxygenRecords != null && !oxygenRecords.isEmpty()) {
-                    System.out.println("\n🫁 SATURATION O2: " + oxygenRecords.size() + " mesures");
-                    totalDataPoints += oxygenRecords.size();
-                }
-
-                // 🌡️ BODY TEMPERATURE
-                List<BodyTemperatureRecord> tempRecords = day.getBodyTemperature();
-                if (tempRecords != null && !tempRecords.isEmpty()) {
-                    System.out.println("🌡️  TEMPÉRATURE: " + tempRecords.size() + " mesures");
-                    totalDataPoints += tempRecords.size();
-                }
-
-                // 💉 BLOOD PRESSURE
-                List<BloodPressureRecord> bpRecords = day.getBloodPressure();
-                if (bpRecords != null && !bpRecords.isEmpty()) {
-                    System.out.println("💉 PRESSION: " + bpRecords.size() + " mesures");
-                    totalDataPoints += bpRecords.size();
-                }
-
-                // ⚖️ WEIGHT
-                List<WeightRecord> weightRecords = day.getWeight();
-                if (weightRecords != null && !weightRecords.isEmpty()) {
-                    System.out.println("⚖️  POIDS: " + weightRecords.size() + " mesures");
-                    totalDataPoints += weightRecords.size();
-                }
-
-                // 📏 HEIGHT
-                List<HeightRecord> heightRecords = day.getHeight();
-                if (heightRecords != null && !heightRecords.isEmpty()) {
-                    System.out.println("📏 TAILLE: " + heightRecords.size() + " mesures");
-                    totalDataPoints += heightRecords.size();
-                }
-
-                System.out.println("\n" + "─".repeat(65));
-            }
+        } catch (Exception e) {
+            log.error("Error processing health data", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
 
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  ✅ SUCCÈS - " + totalDataPoints + " points sauvegardés dans MongoDB   ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
+    // ✅ Réception en streaming : les jours sont sauvegardés au fil de la lecture du body (JSON, CBOR ou Smile)
+    @PostMapping(value = "/stream", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, SMILE_VALUE})
+    public ResponseEntity<String> receiveHealthDataStream(HttpServletRequest request) {
+        try {
+            BiometricIngestResult result = healthDataStreamService.ingest(
+                    request.getInputStream(), MediaType.parseMediaType(request.getContentType()));
+            return ingestResponse(result, request);
 
-            log.info("Health data processed successfully - User: {}, Records: {}, Data points: {}",
-                    userEmail, savedData.size(), totalDataPoints);
+        } catch (RequestDecompressionFilter.PayloadTooLargeException e) {
+            return payloadTooLarge(e);
+        } catch (Exception e) {
+            log.error("Error streaming health data", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok(String.format(
-                    "✅ %d données reçues et sauvegardées!\n👤 Email: %s\n💾 %d enregistrements MongoDB",
-                    totalDataPoints, userEmail, savedData.size()
+    // ✅ Réception asynchrone : 202 dès que l'envoi est journalisé sur disque, écriture MongoDB en arrière-plan
+    @PostMapping("/async")
+    public ResponseEntity<String> receiveHealthDataAsync(@RequestBody HealthData healthData) {
+        try {
+            if (!ingestQueueService.enqueue(healthData)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .body("⏳ Serveur saturé, réessayez plus tard");
+            }
+            return ResponseEntity.accepted().body(String.format(
+                    "📥 %d jours reçus, sauvegarde en cours\n👤 Email: %s",
+                    healthData.getDailyData().size(), healthData.getEmail()
             ));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
         } catch (Exception e) {
-            log.error("Error processing health data", e);
-            System.err.println("\n❌ ERREUR: " + e.getMessage() + "\n");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            log.error("Error queuing health data", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("❌ Erreur: " + e.getMessage());
         }
     }
 
-    // ✅ Récupérer les données d'un utilisateur
+    // ✅ Synchronisation delta : points de reprise par type de mesure
+    @GetMapping("/sync/{userId}")
+    public ResponseEntity<?> getSyncState(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(healthSyncService.getSyncState(userId));
+        } catch (Exception e) {
+            log.error("Error fetching sync state: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Synchronisation delta : seuls les enregistrements postérieurs aux points de reprise,
+    // la réponse contient les nouveaux points de reprise (207 si des jours sont à renvoyer)
+    @PostMapping("/delta")
+    public ResponseEntity<?> receiveHealthDataDelta(@RequestBody HealthData healthData, HttpServletRequest request) {
+        try {
+            BiometricIngestResult result = healthSyncService.ingestDelta(healthData);
+            recordIngest(result, request);
+            if (result.hasFailures()) {
+                log.warn("Health data delta partially saved - User: {}, Failed days: {}", result.getEmail(), result.getFailures());
+            }
+            return ResponseEntity.status(result.hasFailures() ? HttpStatus.MULTI_STATUS : HttpStatus.OK)
+                    .body(healthSyncService.getSyncState(result.getEmail()));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error processing health data delta", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    private void recordIngest(BiometricIngestResult result, HttpServletRequest request) {
+        result.getSummary().setBytes(RequestDecompressionFilter.bodyBytes(request));
+        ingestMetrics.record(result);
+    }
+
+    private ResponseEntity<String> ingestResponse(BiometricIngestResult result, HttpServletRequest request) {
+        String userEmail = result.getEmail();
+        recordIngest(result, request);
+
+        if (result.hasFailures()) {
+            log.warn("Health data partially saved - User: {}, Failed days: {}", userEmail, result.getFailures());
+            return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(String.format(
+                    "⚠️ %d jours sauvegardés, %d en échec\n👤 Email: %s\n❌ %s",
+                    result.getSaved().size(), result.getFailures().size(), userEmail, result.getFailures()
+            ));
+        }
+
+        return ResponseEntity.ok(String.format(
+                "✅ %d données reçues et sauvegardées!\n👤 Email: %s\n💾 %d enregistrements MongoDB",
+                result.getSummary().getTotalDataPoints(), userEmail, result.getSaved().size()
+        ));
+    }
+
+    // ✅ Body compressé au-delà des limites de décompression : 413 ; autres bodies illisibles : traitement par défaut (400)
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<String> unreadableBody(HttpMessageNotReadableException e) {
+        if (e.getMostSpecificCause() instanceof RequestDecompressionFilter.PayloadTooLargeException tooLarge) {
+            return payloadTooLarge(tooLarge);
+        }
+        throw e;
+    }
+
+    private ResponseEntity<String> payloadTooLarge(RequestDecompressionFilter.PayloadTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("❌ " + e.getMessage());
+    }
+
+    // ✅ Récupérer les données d'un utilisateur, paginées du plus récent au plus ancien
+    // Le body reste la liste des jours ; le curseur de la page suivante est dans l'en-tête X-Next-Cursor
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserData(@PathVariable String userId) {
+    public ResponseEntity<?> getUserData(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "full") String view) {
         try {
             log.info("Fetching data for user: {}", userId);
-            List<BiometricData> data = biometricDataService.getUserData(userId);
-            return ResponseEntity.ok(data);
+            CursorPage<BiometricData> page = biometricDataService.getUserData(
+                    userId, cursor, size, from, to, "summary".equalsIgnoreCase(view));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getContent());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ " + e.getMessage());
         } catch (Exception e) {
             log.error("Error fetching user data: {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -235,6 +211,79 @@ public class HealthDataController {
         }
     }
 
+    // ✅ Mesures horodatées d'un type sur une période (backend time-series), 90 derniers jours par défaut
+    @GetMapping("/user/{userId}/measurements")
+    public ResponseEntity<?> getMeasurements(
+            @PathVariable String userId,
+            @RequestParam String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        try {
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(90, ChronoUnit.DAYS);
+            log.info("Fetching {} measurements for user: {} ({} → {})", type, userId, start, end);
+            List<BiometricMeasurement> data = biometricMeasurementService.findMeasurements(userId, type, start, end);
+            return ResponseEntity.ok(data);
+        } catch (Exception e) {
+            log.error("Error fetching measurements: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Alertes signes vitaux d'un patient (tableau de bord médecin), 7 derniers jours par défaut
+    @GetMapping("/user/{userId}/alerts")
+    public ResponseEntity<?> getVitalAlerts(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            Instant start = from != null ? from : Instant.now().minus(7, ChronoUnit.DAYS);
+            List<VitalAlert> alerts = vitalAnomalyService.findAlerts(userId, start, limit);
+            return ResponseEntity.ok(alerts);
+        } catch (Exception e) {
+            log.error("Error fetching vital alerts: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Tendances pas / cœur / sommeil / stress / poids par jour, semaine ou mois (90 derniers jours par défaut)
+    @GetMapping("/user/{userId}/trends")
+    public ResponseEntity<?> getTrends(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "WEEK") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusDays(90);
+            TrendGranularity bucket = TrendGranularity.valueOf(granularity.toUpperCase());
+            log.info("Fetching {} trends for user: {} ({} → {})", bucket, userId, start, end);
+            List<TrendBucket> trends = biometricRollupService.getTrends(userId, start, end, bucket);
+            return ResponseEntity.ok(trends);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Granularité invalide: " + granularity + " (DAY, WEEK ou MONTH)");
+        } catch (Exception e) {
+            log.error("Error fetching trends: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Recalcul des tendances depuis les données brutes (historique antérieur aux rollups)
+    @PostMapping("/user/{userId}/trends/rebuild")
+    public ResponseEntity<String> rebuildTrends(@PathVariable String userId) {
+        try {
+            int days = biometricRollupService.rebuild(userId);
+            return ResponseEntity.ok(String.format("✅ Tendances recalculées: %d jours", days));
+        } catch (Exception e) {
+            log.error("Error rebuilding trends: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
     // ✅ Stats d'un utilisateur
     @GetMapping("/stats/{userId}")
     public ResponseEntity<String> getUserStats(@PathVariable String userId) {
@@ -1,20 +1,31 @@
 package com.example.healthsync.model;
 
+import com.example.healthsync.util.DecimalStringConverter;
+import com.example.healthsync.util.DeltaVarintCodec;
+import com.example.healthsync.util.TimeStringConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "biometric_data")
+@CompoundIndex(name = "email_date_idx", def = "{'email': 1, 'date': 1}", unique = true)  // Un seul document par jour et par utilisateur
+@CompoundIndex(name = "email_received_idx", def = "{'email': 1, 'receivedAt': -1, '_id': -1}")  // Pagination par curseur
 public class BiometricData {
 
+    public static final int SCHEMA_VERSION = 2;
+
     @Id
     private String id;  // MongoDB génère automatiquemen    t
 
@@ -24,13 +35,23 @@ public class BiometricData {
 
     private String date;  // Date des données (format: "2025-10-30")
 
+    // Version du format de stockage : décimales typées (Decimal128, double avant) et horodatages en Date BSON à partir de 2
+    @JsonIgnore
+    private Integer schemaVersion;
+
+    // Compaction des jours anciens : heartRate remplacé par heartRateAggregates, steps regroupés (null : brut)
+    private SampleResolution resolution;
+
     // ✅ TOUTES LES DONNÉES AGRÉGÉES
     private Integer totalSteps;
     private Integer avgHeartRate;
     private Integer minHeartRate;
     private Integer maxHeartRate;
+    @ValueConverter(DecimalStringConverter.class)
     private String totalDistanceKm;
+    @ValueConverter(DecimalStringConverter.class)
     private String totalSleepHours;
+    @ValueConverter(DecimalStringConverter.class)
     private String totalHydrationLiters;
     private String stressLevel;
     private Integer stressScore;
@@ -47,6 +68,7 @@ public class BiometricData {
     private List<WeightRecord> weight;
     private List<HeightRecord> height;
     private List<HydrationRecord> hydration;
+    private List<HeartRateAggregate> heartRateAggregates;
 
     // ✅ Classes internes identiques à HealthData
 
@@ -55,7 +77,9 @@ public class BiometricData {
     @AllArgsConstructor
     public static class StepRecord {
         private Long count;
+        @ValueConverter(TimeStringConverter.class)
         private String startTime;
+        @ValueConverter(TimeStringConverter.class)
         private String endTime;
     }
 
@@ -64,8 +88,69 @@ public class BiometricData {
     @AllArgsConstructor
     public static class HeartRateRecord {
         private List<Long> samples;
+        @ValueConverter(TimeStringConverter.class)
+        private String startTime;
+        @ValueConverter(TimeStringConverter.class)
+        private String endTime;
+
+        // Stockage compact optionnel (healthsync.storage.heart-rate-packed) : remplace samples en base
+        @JsonIgnore
+        private byte[] packedSamples;
+
+        public HeartRateRecord(List<Long> samples, String startTime, String endTime) {
+            this.samples = samples;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        /**
+         * Échantillons sous forme primitive, sans boxing quand le record est stocké compacté
+         */
+        public long[] sampleValues() {
+            if (packedSamples != null) {
+                return DeltaVarintCodec.decode(packedSamples);
+            }
+            if (samples == null) {
+                return new long[0];
+            }
+            return samples.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        /**
+         * Vue liste pour le JSON : décodée à la demande si le record est compacté
+         */
+        public List<Long> getSamples() {
+            if (samples == null && packedSamples != null) {
+                return Arrays.stream(sampleValues()).boxed().toList();
+            }
+            return samples;
+        }
+
+        /**
+         * Copie compactée pour le stockage : le record du payload (partagé par le mapper) n'est pas modifié
+         */
+        public HeartRateRecord packed() {
+            HeartRateRecord copy = new HeartRateRecord(null, startTime, endTime);
+            copy.packedSamples = packedSamples != null ? packedSamples : DeltaVarintCodec.encode(sampleValues());
+            return copy;
+        }
+    }
+
+    /**
+     * Fréquence cardiaque d'une minute ou d'une heure après compaction des échantillons bruts
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeartRateAggregate {
+        @ValueConverter(TimeStringConverter.class)
         private String startTime;
+        @ValueConverter(TimeStringConverter.class)
         private String endTime;
+        private Long count;
+        private Long min;
+        private Long max;
+        private Double avg;
     }
 
     @Data
@@ -73,7 +158,9 @@ public class BiometricData {
     @AllArgsConstructor
     public static class DistanceRecord {
         private Double distanceMeters;
+        @ValueConverter(TimeStringConverter.class)
         private String startTime;
+        @ValueConverter(TimeStringConverter.class)
         private String endTime;
     }
 
@@ -82,7 +169,9 @@ public class BiometricData {
     @AllArgsConstructor
     public static class SleepRecord {
         private String title;
+        @ValueConverter(TimeStringConverter.class)
         private String startTime;
+        @ValueConverter(TimeStringConverter.class)
         private String endTime;
         private Long durationMinutes;
     }
@@ -94,13 +183,16 @@ public class BiometricData {
         private String title;
         private Integer exerciseType;
         private String exerciseTypeName;
+        @ValueConverter(TimeStringConverter.class)
         private String startTime;
+        @ValueConverter(TimeStringConverter.class)
         private String endTime;
         private Long durationMinutes;
 
         // Métriques de performance
         private Long steps;
         private Double distanceMeters;
+        @ValueConverter(DecimalStringConverter.class)
         private String distanceKm;
 
         // Calories
@@ -118,13 +210,19 @@ public class BiometricData {
         private Integer maxCadence;
 
         // Vitesse
+        @ValueConverter(DecimalStringConverter.class)
         private String avgSpeedKmh;
+        @ValueConverter(DecimalStringConverter.class)
         private String maxSpeedKmh;
+        @ValueConverter(DecimalStringConverter.class)
         private String minSpeedKmh;
 
         // Longueur de foulée
+        @ValueConverter(DecimalStringConverter.class)
         private String avgStrideLengthMeters;
+        @ValueConverter(DecimalStringConverter.class)
         private String minStrideLengthMeters;
+        @ValueConverter(DecimalStringConverter.class)
         private String maxStrideLengthMeters;
 
         // Puissance
@@ -136,6 +234,7 @@ public class BiometricData {
     @AllArgsConstructor
     public static class OxygenSaturationRecord {
         private Double percentage;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 
@@ -144,6 +243,7 @@ public class BiometricData {
     @AllArgsConstructor
     public static class BodyTemperatureRecord {
         private Double temperature;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 
@@ -153,6 +253,7 @@ public class BiometricData {
     public static class BloodPressureRecord {
         private Double systolic;
         private Double diastolic;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 
@@ -161,6 +262,7 @@ public class BiometricData {
     @AllArgsConstructor
     public static class WeightRecord {
         private Double weight;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 
@@ -169,6 +271,7 @@ public class BiometricData {
     @AllArgsConstructor
     public static class HeightRecord {
         private Double height;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 
@@ -177,6 +280,7 @@ public class BiometricData {
     @AllArgsConstructor
     public static class HydrationRecord {
         private Double volumeMl;
+        @ValueConverter(TimeStringConverter.class)
         private String time;
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'un envoi Health Connect : jours sauvegardés et jours en échec
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BiometricIngestResult {
+
+    private String email;
+    private List<SavedDay> saved = new ArrayList<>();
+    private List<DayFailure> failures = new ArrayList<>();
+    private IngestSummary summary = new IngestSummary();
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public void addAll(BiometricIngestResult other) {
+        if (email == null) {
+            email = other.getEmail();
+        }
+        saved.addAll(other.getSaved());
+        failures.addAll(other.getFailures());
+        summary.addAll(other.getSummary());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SavedDay {
+        private String date;
+        private String id;  // null si le jour existait déjà (document mis à jour)
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayFailure {
+        private String date;
+        private String error;
+    }
+}
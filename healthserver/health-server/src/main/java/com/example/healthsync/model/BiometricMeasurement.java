@@ -0,0 +1,43 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+
+import java.time.Instant;
+
+/**
+ * Une mesure horodatée, stockée dans une collection time-series MongoDB (5.0+).
+ * email est le metaField : MongoDB regroupe les mesures d'un utilisateur dans les mêmes buckets.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "biometric_measurements")
+@TimeSeries(timeField = "time", metaField = "email", granularity = Granularity.MINUTES)
+@CompoundIndex(name = "email_type_time_idx", def = "{'email': 1, 'type': 1, 'time': 1}")
+public class BiometricMeasurement {
+
+    public static final String HEART_RATE = "heartRate";
+    public static final String OXYGEN_SATURATION = "oxygenSaturation";
+    public static final String BODY_TEMPERATURE = "bodyTemperature";
+    public static final String BLOOD_PRESSURE = "bloodPressure";
+
+    @Id
+    private String id;
+
+    private String email;
+    private Instant time;
+    private String type;      // heartRate | oxygenSaturation | bodyTemperature | bloodPressure
+    private Double value;     // bpm, %, °C, ou systolique
+    private Double diastolic; // Tension uniquement
+
+    public BiometricMeasurement(String email, Instant time, String type, Double value, Double diastolic) {
+        this(null, email, time, type, value, diastolic);
+    }
+}
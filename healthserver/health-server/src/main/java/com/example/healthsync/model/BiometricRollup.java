@@ -0,0 +1,45 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Résumé mensuel d'un utilisateur, tenu à jour à chaque envoi.
+ * Un document par (email, mois) contenant le résumé de chaque jour :
+ * les tendances jour / semaine / mois se calculent sans relire biometric_data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "biometric_rollups")
+@CompoundIndex(name = "email_month_idx", def = "{'email': 1, 'month': 1}", unique = true)
+public class BiometricRollup {
+
+    @Id
+    private String id;
+
+    private String email;
+    private String month;  // format: "2025-10"
+
+    private Map<String, DaySummary> days = new LinkedHashMap<>();  // clé: "2025-10-30"
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DaySummary {
+        private Integer steps;
+        private Integer avgHeartRate;
+        private Integer minHeartRate;
+        private Integer maxHeartRate;
+        private Double sleepHours;
+        private Integer stressScore;
+        private Double weightKg;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une pagination par curseur : renvoyer nextCursor pour obtenir la page suivante
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;  // null sur la dernière page
+}
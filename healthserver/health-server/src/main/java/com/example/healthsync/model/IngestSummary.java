@@ -0,0 +1,54 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Résumé structuré d'un envoi : jours, points de mesure par type, taille du body
+ */
+@Data
+public class IngestSummary {
+
+    private int days;
+    private long bytes = -1;  // -1 si le body est envoyé sans Content-Length
+    private Map<String, Long> dataPoints = new LinkedHashMap<>();
+
+    public void addDay(HealthData.DailyData day) {
+        days++;
+        count("steps", day.getSteps());
+        if (day.getHeartRate() != null) {
+            long samples = 0;
+            for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+                samples += record.getSamples() == null ? 0 : record.getSamples().size();
+            }
+            dataPoints.merge("heartRate", samples, Long::sum);
+        }
+        count("distance", day.getDistance());
+        count("sleep", day.getSleep());
+        count("exercise", day.getExercise());
+        count("oxygenSaturation", day.getOxygenSaturation());
+        count("bodyTemperature", day.getBodyTemperature());
+        count("bloodPressure", day.getBloodPressure());
+        count("weight", day.getWeight());
+        count("height", day.getHeight());
+        count("hydration", day.getHydration());
+    }
+
+    public void addAll(IngestSummary other) {
+        days += other.getDays();
+        other.getDataPoints().forEach((type, count) -> dataPoints.merge(type, count, Long::sum));
+    }
+
+    public long getTotalDataPoints() {
+        return dataPoints.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private void count(String type, Collection<?> records) {
+        if (records != null) {
+            dataPoints.merge(type, (long) records.size(), Long::sum);
+        }
+    }
+}
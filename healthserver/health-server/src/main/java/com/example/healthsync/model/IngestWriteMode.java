@@ -0,0 +1,9 @@
+package com.example.healthsync.model;
+
+/**
+ * Stratégie d'écriture d'un jour déjà présent pour (email, date)
+ */
+public enum IngestWriteMode {
+    REPLACE,  // Le jour reçu remplace entièrement le document existant
+    MERGE     // Les agrégats non nuls sont écrasés, les mesures détaillées sont fusionnées sans doublons
+}
@@ -0,0 +1,10 @@
+package com.example.healthsync.model;
+
+/**
+ * Résolution des mesures détaillées d'un jour (fréquence cardiaque, pas) après compaction.
+ * Absente (null) : enregistrements bruts tels que reçus.
+ */
+public enum SampleResolution {
+    MINUTE,
+    HOUR
+}
@@ -0,0 +1,10 @@
+package com.example.healthsync.model;
+
+/**
+ * Stockage des mesures horodatées (fréquence cardiaque, SpO2, température, tension)
+ */
+public enum StorageBackend {
+    DOCUMENT,    // Listes imbriquées dans le document journalier biometric_data
+    TIMESERIES,  // Une mesure par entrée dans la collection time-series biometric_measurements
+    DUAL         // Les deux (migration progressive des lectures)
+}
@@ -0,0 +1,28 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Point de reprise de la synchronisation delta d'un utilisateur :
+ * pour chaque type de mesure ("steps", "heartRate"...), la fin du dernier enregistrement reçu.
+ * L'app n'envoie ensuite que les enregistrements qui se terminent après.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sync_state")
+public class SyncState {
+
+    @Id
+    private String email;
+
+    private Map<String, Instant> watermarks = new LinkedHashMap<>();
+}
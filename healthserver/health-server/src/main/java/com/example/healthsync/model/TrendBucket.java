@@ -0,0 +1,25 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un point de tendance (jour, semaine ou mois) renvoyé par GET /fetch/user/{userId}/trends
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendBucket {
+    private String start;  // Premier jour du bucket (lundi pour une semaine)
+    private int days;      // Jours ayant des données dans le bucket
+
+    private Long totalSteps;
+    private Double avgSteps;
+    private Double avgHeartRate;
+    private Integer minHeartRate;
+    private Integer maxHeartRate;
+    private Double avgSleepHours;
+    private Double avgStressScore;
+    private Double avgWeightKg;
+}
@@ -0,0 +1,7 @@
+package com.example.healthsync.model;
+
+public enum TrendGranularity {
+    DAY,
+    WEEK,
+    MONTH
+}
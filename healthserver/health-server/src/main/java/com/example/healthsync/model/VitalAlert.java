@@ -0,0 +1,41 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Mesure anormale par rapport à la référence glissante de l'utilisateur (VitalBaseline).
+ * Document volontairement court : le tableau de bord médecin lit les dernières alertes d'un patient par l'index (email, time).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "vital_alerts")
+@CompoundIndex(name = "email_time_idx", def = "{'email': 1, 'time': -1}")
+public class VitalAlert {
+
+    // La tension est suivie comme deux signes vitaux distincts
+    public static final String SYSTOLIC = "systolic";
+    public static final String DIASTOLIC = "diastolic";
+
+    @Id
+    private String id;
+
+    private String email;
+    private String metric;     // heartRate | oxygenSaturation | bodyTemperature | systolic | diastolic
+    private Instant time;      // horodatage de la mesure
+    private Double value;
+    private Double expected;   // moyenne glissante au moment de la mesure
+    private Double zScore;     // écart à la moyenne, en écarts-types
+    private Instant detectedAt;
+
+    public VitalAlert(String email, String metric, Instant time, Double value, Double expected, Double zScore) {
+        this(null, email, metric, time, value, expected, zScore, Instant.now());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Référence glissante d'un utilisateur : moyenne et variance exponentielles (EWMA) par signe vital.
+ * Taille constante quel que soit l'historique ; mise à jour à chaque envoi sans relire les données passées.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "vital_baselines")
+public class VitalBaseline {
+
+    @Id
+    private String email;
+
+    @Version
+    private Long version;
+
+    private Map<String, Stats> metrics = new LinkedHashMap<>();
+
+    public VitalBaseline(String email) {
+        this.email = email;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Stats {
+        private long count;
+        private double mean;
+        private double variance;
+        private Instant lastTime;       // mesures plus anciennes ignorées (renvoi d'un jour déjà reçu)
+        private Instant lastAlertTime;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.BiometricMeasurement;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface BiometricMeasurementRepository extends MongoRepository<BiometricMeasurement, String> {
+
+    List<BiometricMeasurement> findByEmailAndTypeAndTimeBetweenOrderByTimeAsc(String email, String type, Instant from, Instant to);
+
+}
@@ -0,0 +1,17 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.BiometricRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BiometricRollupRepository extends MongoRepository<BiometricRollup, String> {
+
+    // Mois compris entre fromMonth et toMonth inclus ("2025-08" → "2025-10")
+    @Query(value = "{ 'email': ?0, 'month': { $gte: ?1, $lte: ?2 } }", sort = "{ 'month': 1 }")
+    List<BiometricRollup> findMonthsBetween(String email, String fromMonth, String toMonth);
+
+}
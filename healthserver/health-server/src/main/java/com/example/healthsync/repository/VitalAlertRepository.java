@@ -0,0 +1,16 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.VitalAlert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface VitalAlertRepository extends MongoRepository<VitalAlert, String> {
+
+    List<VitalAlert> findByEmailAndTimeGreaterThanEqualOrderByTimeDesc(String email, Instant from, Pageable pageable);
+
+}
@@ -0,0 +1,53 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conversion HealthData.DailyData → BiometricData.
+ * Le payload et le document partagent les mêmes classes de mesures :
+ * seuls les champs du jour sont recopiés, les listes sont reprises par référence.
+ */
+public final class BiometricDataMapper {
+
+    private BiometricDataMapper() {
+    }
+
+    public static BiometricData toBiometricData(String email, LocalDateTime receivedAt, HealthData.DailyData day) {
+        BiometricData data = new BiometricData();
+
+        // Métadonnées
+        data.setEmail(email);
+        data.setReceivedAt(receivedAt);
+        data.setDate(day.getDate());
+        data.setSchemaVersion(BiometricData.SCHEMA_VERSION);
+
+        // ✅ Données agrégées
+        data.setTotalSteps(day.getTotalSteps());
+        data.setAvgHeartRate(day.getAvgHeartRate());
+        data.setMinHeartRate(day.getMinHeartRate());
+        data.setMaxHeartRate(day.getMaxHeartRate());
+        data.setTotalDistanceKm(day.getTotalDistanceKm());
+        data.setTotalSleepHours(day.getTotalSleepHours());
+        data.setTotalHydrationLiters(day.getTotalHydrationLiters());
+        data.setStressLevel(day.getStressLevel());
+        data.setStressScore(day.getStressScore());
+
+        // ✅ Listes détaillées : même modèle que le payload, reprises sans recopie
+        data.setSteps(day.getSteps());
+        data.setHeartRate(day.getHeartRate());
+        data.setDistance(day.getDistance());
+        data.setSleep(day.getSleep());
+        data.setExercise(day.getExercise());
+        data.setOxygenSaturation(day.getOxygenSaturation());
+        data.setBodyTemperature(day.getBodyTemperature());
+        data.setBloodPressure(day.getBloodPressure());
+        data.setWeight(day.getWeight());
+        data.setHeight(day.getHeight());
+        data.setHydration(day.getHydration());
+
+        return data;
+    }
+}
@@ -1,20 +1,48 @@
 package com.example.healthsync.service;
 
 import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.model.CursorPage;
 import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestWriteMode;
+import com.example.healthsync.model.StorageBackend;
 import com.example.healthsync.repository.BiometricDataRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Service
@@ -22,143 +50,432 @@ import java.util.stream.Collectors;
 public class BiometricDataService {
 
     private final BiometricDataRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final BiometricMeasurementService biometricMeasurementService;
+    private final BiometricRollupService biometricRollupService;
+    private final TodayDataCache todayDataCache;
+    private final VitalAnomalyService vitalAnomalyService;
+    private final IngestMetrics ingestMetrics;
+    private final ExecutorService ingestExecutor;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String[] SUMMARY_FIELDS = {
+            "email", "receivedAt", "date", "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate",
+            "totalDistanceKm", "totalSleepHours", "totalHydrationLiters", "stressLevel", "stressScore"
+    };
+
+    @Value("${healthsync.ingest.write-mode:REPLACE}")
+    private IngestWriteMode writeMode;
+
+    @Value("${healthsync.storage.heart-rate-packed:false}")
+    private boolean packHeartRate;
+
+    @Value("${healthsync.storage.backend:DOCUMENT}")
+    private StorageBackend storageBackend;
+
+    @Value("${healthsync.ingest.parallel.threads:4}")
+    private int parallelThreads;
+
+    @Value("${healthsync.ingest.parallel.chunk-days:7}")
+    private int chunkDays;
+
 
 
     /**
      * Sauvegarde les données biométriques reçues de l'app Android
-     * Convertit HealthData → BiometricData pour MongoDB
+     * Convertit HealthData → BiometricData puis écrit tous les jours
+     * en une seule opération bulk non ordonnée (un seul aller-retour MongoDB).
+     * Un jour déjà reçu est remplacé ou fusionné selon healthsync.ingest.write-mode
      */
-    public List<BiometricData> saveBiometricData(HealthData healthData) {
-        List<BiometricData> savedRecords = new ArrayList<>();
+    public BiometricIngestResult saveBiometricData(HealthData healthData) {
+        validate(healthData);
+        return saveDays(healthData.getEmail(), healthData.getDailyData());
+    }
 
+    static void validate(HealthData healthData) {
         if (healthData.getDailyData() == null || healthData.getDailyData().isEmpty()) {
             throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
         }
 
         String email = healthData.getEmail();
-        log.info("📝 Email utilisateur utilisé comme userId: {}", email);
 
         if (email == null || email.isBlank()) {
             throw new IllegalArgumentException("Email utilisateur manquant");
         }
+    }
 
-        for (HealthData.DailyData day : healthData.getDailyData()) {
+    /**
+     * Écrit un lot de jours d'un même utilisateur en un seul bulk
+     * (utilisé tel quel par l'ingestion en streaming, lot par lot)
+     */
+    public BiometricIngestResult saveDays(String email, List<HealthData.DailyData> days) {
+        return writeDays(email, days, false);
+    }
+
+    /**
+     * Synchronisation delta : les enregistrements reçus sont ajoutés ($addToSet) à ceux du jour,
+     * sans réécrire le document. Les agrégats présents remplacent ceux stockés.
+     * Un enregistrement déjà stocké n'est pas ajouté une seconde fois : rejouer un delta dont le point
+     * de reprise n'a pas avancé (nouvel essai, envois concurrents, arrêt entre les deux écritures) est sans effet.
+     */
+    public BiometricIngestResult appendDays(String email, List<HealthData.DailyData> days) {
+        return writeDays(email, days, true);
+    }
+
+    /**
+     * Un envoi de plus de parallel.chunk-days jours est découpé en lots écrits en parallèle
+     * (un bulk par lot) sur le pool borné ingestExecutor. Les entrées d'une même date restent
+     * dans le même lot, dans l'ordre reçu ; un lot qui contient plusieurs fois une date est écrit
+     * par un bulk ordonné, la dernière entrée reçue l'emporte donc. Une erreur MongoDB sur un lot
+     * annule les autres et remonte à l'appelant, comme en écriture séquentielle.
+     */
+    private BiometricIngestResult writeDays(String email, List<HealthData.DailyData> days, boolean append) {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<List<HealthData.DailyData>> chunks = chunk(days);
+
+        List<ChunkResult> chunkResults = chunks.size() == 1
+                ? List.of(writeChunk(email, days, receivedAt, append))
+                : writeChunksInParallel(email, chunks, receivedAt, append);
+
+        BiometricIngestResult result = new BiometricIngestResult();
+        result.setEmail(email);
+        List<BiometricData> savedDocuments = new ArrayList<>(days.size());
+        List<BiometricMeasurement> vitals = new ArrayList<>();
+        for (ChunkResult chunkResult : chunkResults) {
+            result.addAll(chunkResult.result());
+            savedDocuments.addAll(chunkResult.saved());
+            vitals.addAll(chunkResult.vitals());
+        }
+
+        // Les résumés de tendances se reconstruisent (rebuild) : un échec ne fait pas échouer l'envoi
+        long start = System.nanoTime();
+        try {
+            biometricRollupService.recordDays(email, savedDocuments, append || writeMode == IngestWriteMode.MERGE);
+        } catch (Exception e) {
+            log.warn("⚠️ Rollups non mis à jour pour {}: {}", email, e.getMessage());
+        } finally {
+            ingestMetrics.recordStage("rollups", System.nanoTime() - start);
+        }
+
+        // Idem pour la détection d'anomalies : les jours sont déjà enregistrés
+        start = System.nanoTime();
+        try {
+            vitalAnomalyService.process(email, vitals);
+        } catch (Exception e) {
+            log.warn("⚠️ Détection d'anomalies non effectuée pour {}: {}", email, e.getMessage());
+        } finally {
+            ingestMetrics.recordStage("anomalies", System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param vitals mesures horodatées des jours enregistrés (détection d'anomalies)
+     */
+    private record ChunkResult(BiometricIngestResult result, List<BiometricData> saved, List<BiometricMeasurement> vitals) {
+    }
+
+    private List<List<HealthData.DailyData>> chunk(List<HealthData.DailyData> days) {
+        if (parallelThreads <= 1 || days.size() <= chunkDays) {
+            return List.of(days);
+        }
+
+        Map<String, List<HealthData.DailyData>> byDate = new LinkedHashMap<>();
+        for (HealthData.DailyData day : days) {
+            byDate.computeIfAbsent(day.getDate(), date -> new ArrayList<>()).add(day);
+        }
+
+        List<List<HealthData.DailyData>> chunks = new ArrayList<>();
+        List<HealthData.DailyData> current = new ArrayList<>(chunkDays);
+        for (List<HealthData.DailyData> sameDate : byDate.values()) {
+            current.addAll(sameDate);
+            if (current.size() >= chunkDays) {
+                chunks.add(current);
+                current = new ArrayList<>(chunkDays);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private List<ChunkResult> writeChunksInParallel(String email, List<List<HealthData.DailyData>> chunks,
+                                                    LocalDateTime receivedAt, boolean append) {
+        CompletionService<ChunkResult> completion = new ExecutorCompletionService<>(ingestExecutor);
+        List<Future<ChunkResult>> futures = new ArrayList<>(chunks.size());
+        for (List<HealthData.DailyData> chunk : chunks) {
+            futures.add(completion.submit(() -> writeChunk(email, chunk, receivedAt, append)));
+        }
+
+        // Lots récupérés dans l'ordre où ils se terminent : le premier en erreur arrête l'envoi
+        ChunkResult[] results = new ChunkResult[chunks.size()];
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                Future<ChunkResult> done = completion.take();
+                results[futures.indexOf(done)] = done.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ingestion interrompue", e);
+        }
+        return List.of(results);
+    }
+
+    private ChunkResult writeChunk(String email, List<HealthData.DailyData> days, LocalDateTime receivedAt, boolean append) {
+        BiometricIngestResult result = new BiometricIngestResult();
+        result.setEmail(email);
+        List<BiometricData> documents = new ArrayList<>(days.size());
+        List<List<BiometricMeasurement>> measurements = new ArrayList<>(days.size());
+        boolean extract = storageBackend != StorageBackend.DOCUMENT || vitalAnomalyService.isEnabled();
+
+        long start = System.nanoTime();
+        for (HealthData.DailyData day : days) {
+            result.getSummary().addDay(day);
             try {
-                BiometricData data = new BiometricData();
-
-                // Métadonnées
-                data.setEmail(email);
-                data.setReceivedAt(LocalDateTime.now());
-                data.setDate(day.getDate());
-
-                // ✅ Données agrégées
-                data.setTotalSteps(day.getTotalSteps());
-                data.setAvgHeartRate(day.getAvgHeartRate());
-                data.setMinHeartRate(day.getMinHeartRate());
-                data.setMaxHeartRate(day.getMaxHeartRate());
-                data.setTotalDistanceKm(day.getTotalDistanceKm());
-                data.setTotalSleepHours(day.getTotalSleepHours());
-                data.setTotalHydrationLiters(day.getTotalHydrationLiters());
-                data.setStressLevel(day.getStressLevel());
-                data.setStressScore(day.getStressScore());
-
-                // ✅ Conversion des listes détaillées
-                if (day.getSteps() != null) {
-                    data.setSteps(day.getSteps().stream()
-                            .map(s -> new BiometricData.StepRecord(s.getCount(), s.getStartTime(), s.getEndTime()))
-                            .collect(Collectors.toList()));
+                BiometricData data = BiometricDataMapper.toBiometricData(email, receivedAt, day);
+                if (extract) {
+                    measurements.add(BiometricMeasurementService.extract(data));
                 }
-
-                if (day.getHeartRate() != null) {
-                    data.setHeartRate(day.getHeartRate().stream()
-                            .map(hr -> new BiometricData.HeartRateRecord(hr.getSamples(), hr.getStartTime(), hr.getEndTime()))
-                            .collect(Collectors.toList()));
+                if (storageBackend == StorageBackend.TIMESERIES) {
+                    // Les mesures horodatées ne vivent plus que dans la collection time-series
+                    data.setHeartRate(null);
+                    data.setOxygenSaturation(null);
+                    data.setBodyTemperature(null);
+                    data.setBloodPressure(null);
                 }
-
-                if (day.getDistance() != null) {
-                    data.setDistance(day.getDistance().stream()
-                            .map(d -> new BiometricData.DistanceRecord(d.getDistanceMeters(), d.getStartTime(), d.getEndTime()))
-                            .collect(Collectors.toList()));
+                if (packHeartRate && data.getHeartRate() != null) {
+                    data.setHeartRate(data.getHeartRate().stream().map(BiometricData.HeartRateRecord::packed).toList());
                 }
+                documents.add(data);
+            } catch (Exception e) {
+                log.error("❌ Erreur conversion jour {}: {}", day.getDate(), e.getMessage());
+                result.getFailures().add(new BiometricIngestResult.DayFailure(day.getDate(), e.getMessage()));
+            }
+        }
+        ingestMetrics.recordStage("convert", System.nanoTime() - start);
 
-                if (day.getSleep() != null) {
-                    data.setSleep(day.getSleep().stream()
-                            .map(s -> new BiometricData.SleepRecord(s.getTitle(), s.getStartTime(), s.getEndTime(), s.getDurationMinutes()))
-                            .collect(Collectors.toList()));
-                }
+        if (documents.isEmpty()) {
+            return new ChunkResult(result, List.of(), List.of());
+        }
 
-                if (day.getExercise() != null) {
-                    data.setExercise(day.getExercise().stream()
-                            .map(e -> new BiometricData.ExerciseRecord(
-                                    e.getTitle(), e.getExerciseType(), e.getExerciseTypeName(),
-                                    e.getStartTime(), e.getEndTime(), e.getDurationMinutes(),
-                                    e.getSteps(), e.getDistanceMeters(), e.getDistanceKm(),
-                                    e.getActiveCalories(), e.getTotalCalories(),
-                                    e.getAvgHeartRate(), e.getMinHeartRate(), e.getMaxHeartRate(),
-                                    e.getAvgCadence(), e.getMinCadence(), e.getMaxCadence(),
-                                    e.getAvgSpeedKmh(), e.getMaxSpeedKmh(), e.getMinSpeedKmh(),
-                                    e.getAvgStrideLengthMeters(), e.getMinStrideLengthMeters(), e.getMaxStrideLengthMeters(),
-                                    e.getAvgPowerWatts()
-                            ))
-                            .collect(Collectors.toList()));
-                }
+        // ✅ Sauvegarde dans MongoDB : un seul bulk par lot, un upsert par (email, date)
+        // Bulk non ordonné sauf si une date revient : l'ordre d'application est alors celui de réception
+        start = System.nanoTime();
+        boolean ordered = documents.stream().map(BiometricData::getDate).distinct().count() < documents.size();
+        BulkOperations bulk = mongoTemplate.bulkOps(
+                ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+        for (BiometricData data : documents) {
+            Query sameDay = Query.query(Criteria.where("email").is(email).and("date").is(data.getDate()));
+            if (append || writeMode == IngestWriteMode.MERGE) {
+                bulk.upsert(sameDay, mergeUpdate(data));
+            } else {
+                bulk.replaceOne(sameDay, data, FindAndReplaceOptions.options().upsert());
+            }
+        }
 
-                if (day.getOxygenSaturation() != null) {
-                    data.setOxygenSaturation(day.getOxygenSaturation().stream()
-                            .map(o2 -> new BiometricData.OxygenSaturationRecord(o2.getPercentage(), o2.getTime()))
-                            .collect(Collectors.toList()));
+        Map<Integer, String> writeErrors = new HashMap<>();
+        BulkWriteResult writeResult;
+        try {
+            writeResult = bulk.execute();
+        } catch (BulkOperationException e) {
+            writeResult = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                writeErrors.put(error.getIndex(), error.getMessage());
+            }
+            // Bulk ordonné : MongoDB s'arrête à la première erreur, les entrées suivantes ne sont pas écrites
+            if (ordered && !writeErrors.isEmpty()) {
+                int firstError = Collections.min(writeErrors.keySet());
+                for (int i = firstError + 1; i < documents.size(); i++) {
+                    writeErrors.putIfAbsent(i, "Non écrit : une entrée précédente du même lot a échoué");
                 }
+            }
+        } finally {
+            ingestMetrics.recordStage("write", System.nanoTime() - start);
+        }
 
-                if (day.getBodyTemperature() != null) {
-                    data.setBodyTemperature(day.getBodyTemperature().stream()
-                            .map(temp -> new BiometricData.BodyTemperatureRecord(temp.getTemperature(), temp.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        // Seuls les jours nouvellement créés renvoient leur id
+        for (BulkWriteUpsert upsert : writeResult.getUpserts()) {
+            documents.get(upsert.getIndex()).setId(upsert.getId().asObjectId().getValue().toHexString());
+        }
 
-                if (day.getBloodPressure() != null) {
-                    data.setBloodPressure(day.getBloodPressure().stream()
-                            .map(bp -> new BiometricData.BloodPressureRecord(bp.getSystolic(), bp.getDiastolic(), bp.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        if (storageBackend != StorageBackend.DOCUMENT) {
+            start = System.nanoTime();
+            writeMeasurements(email, measurements, writeErrors);
+            ingestMetrics.recordStage("measurements", System.nanoTime() - start);
+        }
 
-                if (day.getWeight() != null) {
-                    data.setWeight(day.getWeight().stream()
-                            .map(w -> new BiometricData.WeightRecord(w.getWeight(), w.getTime()))
-                            .collect(Collectors.toList()));
+        List<BiometricData> savedDocuments = new ArrayList<>(documents.size());
+        List<BiometricMeasurement> vitals = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            BiometricData data = documents.get(i);
+            todayDataCache.invalidate(email, data.getDate());
+            String error = writeErrors.get(i);
+            if (error == null) {
+                savedDocuments.add(data);
+                if (extract) {
+                    vitals.addAll(measurements.get(i));
                 }
+                result.getSaved().add(new BiometricIngestResult.SavedDay(data.getDate(), data.getId()));
+                log.debug("✅ Sauvegardé: userId={}, date={}, id={}", email, data.getDate(), data.getId());
+            } else {
+                result.getFailures().add(new BiometricIngestResult.DayFailure(data.getDate(), error));
+                log.error("❌ Erreur sauvegarde jour {}: {}", data.getDate(), error);
+            }
+        }
 
-                if (day.getHeight() != null) {
-                    data.setHeight(day.getHeight().stream()
-                            .map(h -> new BiometricData.HeightRecord(h.getHeight(), h.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        return new ChunkResult(result, savedDocuments, vitals);
+    }
 
-                if (day.getHydration() != null) {
-                    data.setHydration(day.getHydration().stream()
-                            .map(hyd -> new BiometricData.HydrationRecord(hyd.getVolumeMl(), hyd.getTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Écrit les mesures time-series des jours dont le document journalier est passé.
+     * En cas d'échec, ces jours sont signalés en erreur : un renvoi les réécrira sans doublon.
+     */
+    private void writeMeasurements(String email, List<List<BiometricMeasurement>> measurements, Map<Integer, String> writeErrors) {
+        List<BiometricMeasurement> toWrite = new ArrayList<>();
+        for (int i = 0; i < measurements.size(); i++) {
+            if (!writeErrors.containsKey(i)) {
+                toWrite.addAll(measurements.get(i));
+            }
+        }
+
+        try {
+            biometricMeasurementService.replaceMeasurements(email, toWrite);
+        } catch (Exception e) {
+            log.error("❌ Erreur écriture des mesures time-series pour {}: {}", email, e.getMessage());
+            for (int i = 0; i < measurements.size(); i++) {
+                writeErrors.putIfAbsent(i, "Mesures time-series non enregistrées: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fusion d'un jour : les agrégats reçus écrasent les anciens,
+     * les mesures détaillées déjà connues ne sont pas dupliquées ($addToSet), en MERGE comme en delta
+     */
+    private Update mergeUpdate(BiometricData data) {
+        Update update = new Update().set("receivedAt", data.getReceivedAt());
+        // Un document existant garde sa version : il peut encore contenir des champs au format texte
+        update.setOnInsert("schemaVersion", data.getSchemaVersion());
+
+        setIfPresent(update, "totalSteps", data.getTotalSteps());
+        setIfPresent(update, "avgHeartRate", data.getAvgHeartRate());
+        setIfPresent(update, "minHeartRate", data.getMinHeartRate());
+        setIfPresent(update, "maxHeartRate", data.getMaxHeartRate());
+        setIfPresent(update, "totalDistanceKm", data.getTotalDistanceKm());
+        setIfPresent(update, "totalSleepHours", data.getTotalSleepHours());
+        setIfPresent(update, "totalHydrationLiters", data.getTotalHydrationLiters());
+        setIfPresent(update, "stressLevel", data.getStressLevel());
+        setIfPresent(update, "stressScore", data.getStressScore());
+
+        addAll(update, "steps", data.getSteps());
+        addAll(update, "heartRate", data.getHeartRate());
+        addAll(update, "distance", data.getDistance());
+        addAll(update, "sleep", data.getSleep());
+        addAll(update, "exercise", data.getExercise());
+        addAll(update, "oxygenSaturation", data.getOxygenSaturation());
+        addAll(update, "bodyTemperature", data.getBodyTemperature());
+        addAll(update, "bloodPressure", data.getBloodPressure());
+        addAll(update, "weight", data.getWeight());
+        addAll(update, "height", data.getHeight());
+        addAll(update, "hydration", data.getHydration());
+
+        return update;
+    }
 
-                // ✅ Sauvegarde dans MongoDB
-                BiometricData saved = repository.save(data);
-                savedRecords.add(saved);
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
 
-                log.info("✅ Sauvegardé: userId={}, date={}, id={}",
-                        email, data.getDate(), saved.getId());
+    private static void addAll(Update update, String field, List<?> records) {
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+        update.addToSet(field).each(records.toArray());
+    }
 
-            } catch (Exception e) {
-                log.error("❌ Erreur sauvegarde jour {}: {}", day.getDate(), e.getMessage());
-                throw new RuntimeException("Erreur lors de la sauvegarde: " + e.getMessage(), e);
+    /**
+     * Historique d'un utilisateur, du plus récent au plus ancien, par pages de taille bornée.
+     * Pagination par curseur sur (receivedAt, id) : chaque page est une lecture d'index,
+     * quelle que soit sa profondeur. summaryOnly ne charge que les agrégats du jour.
+     */
+    public CursorPage<BiometricData> getUserData(String email, String cursor, int size,
+                                                 LocalDate from, LocalDate to, boolean summaryOnly) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Criteria criteria = Criteria.where("email").is(email);
+
+        if (from != null || to != null) {
+            Criteria dateRange = Criteria.where("date");
+            if (from != null) {
+                dateRange.gte(from.toString());
+            }
+            if (to != null) {
+                dateRange.lte(to.toString());
             }
+            criteria.andOperator(dateRange);
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            Position position = decodeCursor(cursor);
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("receivedAt").lt(position.receivedAt()),
+                    Criteria.where("receivedAt").is(position.receivedAt()).and("_id").lt(position.id())));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "receivedAt", "_id"))
+                .limit(pageSize + 1);
+        if (summaryOnly) {
+            query.fields().include(SUMMARY_FIELDS);
+        }
+
+        List<BiometricData> documents = mongoTemplate.find(query, BiometricData.class);
+        boolean hasMore = documents.size() > pageSize;
+        if (hasMore) {
+            documents = documents.subList(0, pageSize);
         }
 
-        return savedRecords;
+        BiometricData last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+        return CursorPage.<BiometricData>builder()
+                .content(documents)
+                .size(documents.size())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(last) : null)
+                .build();
     }
 
-    public List<BiometricData> getUserData(String email) {
-        return repository.findByEmailOrderByReceivedAtDesc(email);
+    private static String encodeCursor(BiometricData last) {
+        String position = last.getReceivedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Toute erreur de lecture du curseur (Base64, date, ObjectId) donne une IllegalArgumentException (400)
+     */
+    private static Position decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return new Position(LocalDateTime.parse(position[0]), new ObjectId(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    private record Position(LocalDateTime receivedAt, ObjectId id) {
     }
 
 
@@ -167,9 +484,14 @@ public class BiometricDataService {
         return String.format("👤 User %s: %d enregistrements", email, total);
     }
 
+    /**
+     * Servi depuis TodayDataCache : MongoDB n'est lu qu'au premier appel du jour ou après un envoi
+     */
     public BiometricData getTodayData(String userId) {
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        log.info("Recherche des données biométriques pour {} à la date {}", userId, today);
-        return repository.findTopByEmailAndDateOrderByReceivedAtDesc(userId, today);
+        String today = LocalDate.now().toString();
+        return todayDataCache.get(userId, today, email -> {
+            log.info("Recherche des données biométriques pour {} à la date {}", email, today);
+            return repository.findTopByEmailAndDateOrderByReceivedAtDesc(email, today);
+        });
     }
 }
\ No newline at end of file
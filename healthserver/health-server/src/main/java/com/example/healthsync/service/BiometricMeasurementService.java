@@ -0,0 +1,120 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.repository.BiometricMeasurementRepository;
+import com.example.healthsync.util.HealthTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BiometricMeasurementService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricMeasurementRepository repository;
+
+    /**
+     * Éclate les mesures horodatées d'un jour en entrées time-series.
+     * Les échantillons cardiaques n'ont pas d'horodatage propre :
+     * ils sont répartis uniformément entre startTime et endTime de leur enregistrement.
+     */
+    public static List<BiometricMeasurement> extract(BiometricData data) {
+        String email = data.getEmail();
+        List<BiometricMeasurement> measurements = new ArrayList<>();
+
+        if (data.getHeartRate() != null) {
+            for (BiometricData.HeartRateRecord record : data.getHeartRate()) {
+                Instant start = HealthTime.parse(record.getStartTime());
+                if (start == null) {
+                    continue;
+                }
+                Instant end = HealthTime.parse(record.getEndTime());
+                long[] samples = record.sampleValues();
+                long stepMillis = end == null || samples.length == 0
+                        ? 0 : Duration.between(start, end).toMillis() / samples.length;
+                for (int i = 0; i < samples.length; i++) {
+                    measurements.add(new BiometricMeasurement(email, start.plusMillis(i * stepMillis),
+                            BiometricMeasurement.HEART_RATE, (double) samples[i], null));
+                }
+            }
+        }
+
+        if (data.getOxygenSaturation() != null) {
+            for (BiometricData.OxygenSaturationRecord record : data.getOxygenSaturation()) {
+                add(measurements, email, record.getTime(), BiometricMeasurement.OXYGEN_SATURATION, record.getPercentage(), null);
+            }
+        }
+
+        if (data.getBodyTemperature() != null) {
+            for (BiometricData.BodyTemperatureRecord record : data.getBodyTemperature()) {
+                add(measurements, email, record.getTime(), BiometricMeasurement.BODY_TEMPERATURE, record.getTemperature(), null);
+            }
+        }
+
+        if (data.getBloodPressure() != null) {
+            for (BiometricData.BloodPressureRecord record : data.getBloodPressure()) {
+                add(measurements, email, record.getTime(), BiometricMeasurement.BLOOD_PRESSURE, record.getSystolic(), record.getDiastolic());
+            }
+        }
+
+        return measurements;
+    }
+
+    private static void add(List<BiometricMeasurement> measurements, String email, String time,
+                            String type, Double value, Double diastolic) {
+        Instant instant = HealthTime.parse(time);
+        if (instant != null && value != null) {
+            measurements.add(new BiometricMeasurement(email, instant, type, value, diastolic));
+        }
+    }
+
+    /**
+     * Remplace, pour chaque type, les mesures déjà stockées sur la plage couverte par l'envoi,
+     * puis insère les nouvelles : un renvoi du même jour ne crée pas de doublons.
+     * Un seul bulk ordonné (suppressions puis insertions).
+     * Nécessite MongoDB 7.0 pour filtrer les suppressions sur un champ autre que le metaField.
+     */
+    public void replaceMeasurements(String email, List<BiometricMeasurement> measurements) {
+        if (measurements.isEmpty()) {
+            return;
+        }
+
+        Map<String, Instant[]> spanByType = new LinkedHashMap<>();
+        for (BiometricMeasurement m : measurements) {
+            Instant[] span = spanByType.computeIfAbsent(m.getType(), type -> new Instant[]{m.getTime(), m.getTime()});
+            if (m.getTime().isBefore(span[0])) {
+                span[0] = m.getTime();
+            }
+            if (m.getTime().isAfter(span[1])) {
+                span[1] = m.getTime();
+            }
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, BiometricMeasurement.class);
+        spanByType.forEach((type, span) -> bulk.remove(Query.query(Criteria.where("email").is(email)
+                .and("type").is(type)
+                .and("time").gte(span[0]).lte(span[1]))));
+        bulk.insert(measurements);
+        bulk.execute();
+
+        log.debug("⏱️ {} mesures time-series écrites pour {}", measurements.size(), email);
+    }
+
+    public List<BiometricMeasurement> findMeasurements(String email, String type, Instant from, Instant to) {
+        return repository.findByEmailAndTypeAndTimeBetweenOrderByTimeAsc(email, type, from, to);
+    }
+}
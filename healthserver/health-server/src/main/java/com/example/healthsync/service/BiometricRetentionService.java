@@ -0,0 +1,299 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.SampleResolution;
+import com.example.healthsync.util.HealthTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compaction des jours anciens de biometric_data : au-delà de minute-after, les échantillons cardiaques
+ * sont remplacés par des agrégats à la minute (min / max / moyenne / nombre) et les pas regroupés par minute ;
+ * au-delà de hour-after, à l'heure. Les champs résumés du jour (totalSteps, avgHeartRate...) ne sont pas modifiés.
+ * Lots courts avec pause, comme la migration de schéma, pour ne pas concurrencer l'ingestion.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BiometricRetentionService {
+
+    private static final String[] FIELDS = {"receivedAt", "date", "resolution", "heartRate", "heartRateAggregates", "steps"};
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${healthsync.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${healthsync.retention.minute-after:P30D}")
+    private Duration minuteAfter;
+
+    @Value("${healthsync.retention.hour-after:P180D}")
+    private Duration hourAfter;
+
+    @Value("${healthsync.retention.batch-size:200}")
+    private int batchSize;
+
+    @Value("${healthsync.retention.pause-ms:200}")
+    private long pauseMs;
+
+    @Scheduled(cron = "${healthsync.retention.cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        if (enabled) {
+            compact();
+        }
+    }
+
+    /**
+     * Le palier horaire passe en premier : un jour assez ancien n'est compacté qu'une fois, directement à l'heure.
+     * Une instance ne lance pas deux compactions en parallèle.
+     * @return nombre de jours compactés
+     */
+    public long compact() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            long compacted = compact(SampleResolution.HOUR, today.minusDays(hourAfter.toDays()),
+                    List.of(SampleResolution.HOUR));
+            compacted += compact(SampleResolution.MINUTE, today.minusDays(minuteAfter.toDays()),
+                    List.of(SampleResolution.MINUTE, SampleResolution.HOUR));
+            if (compacted > 0) {
+                log.info("🗜️ Compaction biometric_data: {} jours compactés", compacted);
+            }
+            return compacted;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Parcours par _id croissant des jours antérieurs à before qui ne sont pas encore à la résolution visée
+     */
+    private long compact(SampleResolution resolution, LocalDate before, List<SampleResolution> done) {
+        long compacted = 0;
+        String lastId = null;
+
+        try {
+            while (true) {
+                Criteria criteria = Criteria.where("date").lt(before.toString()).and("resolution").nin(done);
+                if (lastId != null) {
+                    criteria.and("_id").gt(new ObjectId(lastId));
+                }
+                Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+                query.fields().include(FIELDS);
+                List<BiometricData> batch = mongoTemplate.find(query, BiometricData.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                compacted += write(batch, resolution, done);
+                lastId = batch.get(batch.size() - 1).getId();
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Compaction {} interrompue après {} jours: {}", resolution, compacted, e.getMessage());
+        }
+        return compacted;
+    }
+
+    /**
+     * Mise à jour ciblée (pas de remplacement du document) ; le filtre sur receivedAt écarte
+     * les jours réécrits par une ingestion entre la lecture et l'écriture, ils seront repris au passage suivant
+     */
+    private int write(List<BiometricData> batch, SampleResolution resolution, List<SampleResolution> done) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+
+        for (BiometricData data : batch) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(data.getId())
+                    .and("receivedAt").is(data.getReceivedAt())
+                    .and("resolution").nin(done)), compaction(data, resolution));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    /**
+     * Seuls les échantillons repris dans un agrégat quittent heartRate :
+     * un enregistrement dont le début est illisible y reste tel quel
+     */
+    static Update compaction(BiometricData data, SampleResolution resolution) {
+        ChronoUnit unit = resolution == SampleResolution.HOUR ? ChronoUnit.HOURS : ChronoUnit.MINUTES;
+        Update update = new Update().set("resolution", resolution);
+
+        HeartRateCompaction heartRate = aggregateHeartRate(data, unit);
+        if (heartRate.unreadable().isEmpty()) {
+            update.unset("heartRate");
+        } else {
+            update.set("heartRate", heartRate.unreadable());
+        }
+        if (heartRate.aggregates().isEmpty()) {
+            update.unset("heartRateAggregates");
+        } else {
+            update.set("heartRateAggregates", heartRate.aggregates());
+        }
+        if (data.getSteps() != null) {
+            update.set("steps", aggregateSteps(data.getSteps(), unit));
+        }
+        return update;
+    }
+
+    /**
+     * @param aggregates agrégats du palier, suivis des agrégats existants illisibles, conservés tels quels
+     * @param unreadable enregistrements bruts non agrégés, à garder dans heartRate
+     */
+    record HeartRateCompaction(List<BiometricData.HeartRateAggregate> aggregates,
+                               List<BiometricData.HeartRateRecord> unreadable) {
+    }
+
+    /**
+     * Échantillons bruts répartis uniformément entre startTime et endTime de leur enregistrement
+     * (comme pour la collection time-series), agrégats existants (palier minute) fusionnés tels quels.
+     * Sans endTime lisible, les échantillons sont rattachés au début de l'enregistrement.
+     */
+    static HeartRateCompaction aggregateHeartRate(BiometricData data, ChronoUnit unit) {
+        Map<Instant, HeartRateBucket> buckets = new TreeMap<>();
+        List<BiometricData.HeartRateRecord> unreadableRecords = new ArrayList<>();
+        List<BiometricData.HeartRateAggregate> unreadableAggregates = new ArrayList<>();
+
+        if (data.getHeartRate() != null) {
+            for (BiometricData.HeartRateRecord record : data.getHeartRate()) {
+                Instant start = HealthTime.parse(record.getStartTime());
+                if (start == null) {
+                    unreadableRecords.add(record);
+                    continue;
+                }
+                Instant end = HealthTime.parse(record.getEndTime());
+                long[] samples = record.sampleValues();
+                long stepMillis = end == null || samples.length == 0
+                        ? 0 : Duration.between(start, end).toMillis() / samples.length;
+                for (int i = 0; i < samples.length; i++) {
+                    Instant time = start.plusMillis(i * stepMillis);
+                    buckets.computeIfAbsent(truncate(time, unit), t -> new HeartRateBucket())
+                            .add(time, 1, samples[i], samples[i], samples[i]);
+                }
+            }
+        }
+
+        if (data.getHeartRateAggregates() != null) {
+            for (BiometricData.HeartRateAggregate aggregate : data.getHeartRateAggregates()) {
+                if (aggregate.getCount() != null && aggregate.getCount() == 0) {
+                    continue;
+                }
+                Instant start = HealthTime.parse(aggregate.getStartTime());
+                if (start == null || aggregate.getCount() == null || aggregate.getMin() == null
+                        || aggregate.getMax() == null || aggregate.getAvg() == null) {
+                    unreadableAggregates.add(aggregate);
+                    continue;
+                }
+                Instant end = HealthTime.parse(aggregate.getEndTime());
+                HeartRateBucket bucket = buckets.computeIfAbsent(truncate(start, unit), t -> new HeartRateBucket());
+                bucket.add(start, aggregate.getCount(), aggregate.getMin(), aggregate.getMax(),
+                        aggregate.getAvg() * aggregate.getCount());
+                if (end != null) {
+                    bucket.add(end);
+                }
+            }
+        }
+
+        List<BiometricData.HeartRateAggregate> aggregates = new ArrayList<>(buckets.size() + unreadableAggregates.size());
+        buckets.values().forEach(bucket -> aggregates.add(bucket.toAggregate()));
+        aggregates.addAll(unreadableAggregates);
+        return new HeartRateCompaction(aggregates, unreadableRecords);
+    }
+
+    /**
+     * Un intervalle de pas est rattaché à la minute / l'heure de son début
+     */
+    static List<BiometricData.StepRecord> aggregateSteps(List<BiometricData.StepRecord> steps, ChronoUnit unit) {
+        Map<Instant, BiometricData.StepRecord> buckets = new TreeMap<>();
+        List<BiometricData.StepRecord> unreadable = new ArrayList<>();
+
+        for (BiometricData.StepRecord record : steps) {
+            Instant start = HealthTime.parse(record.getStartTime());
+            Instant end = HealthTime.parse(record.getEndTime());
+            if (start == null || end == null) {
+                unreadable.add(record);
+                continue;
+            }
+            BiometricData.StepRecord bucket = buckets.get(truncate(start, unit));
+            if (bucket == null) {
+                buckets.put(truncate(start, unit), new BiometricData.StepRecord(
+                        record.getCount(), HealthTime.format(start), HealthTime.format(end)));
+                continue;
+            }
+            if (record.getCount() != null) {
+                bucket.setCount(bucket.getCount() == null ? record.getCount() : bucket.getCount() + record.getCount());
+            }
+            if (start.isBefore(HealthTime.parse(bucket.getStartTime()))) {
+                bucket.setStartTime(HealthTime.format(start));
+            }
+            if (end.isAfter(HealthTime.parse(bucket.getEndTime()))) {
+                bucket.setEndTime(HealthTime.format(end));
+            }
+        }
+
+        List<BiometricData.StepRecord> aggregated = new ArrayList<>(buckets.values());
+        aggregated.addAll(unreadable);
+        return aggregated;
+    }
+
+    /**
+     * Tranches dans le fuseau des horodatages relus
+     */
+    private static Instant truncate(Instant time, ChronoUnit unit) {
+        ZoneId zone = HealthTime.zone();
+        return LocalDateTime.ofInstant(time, zone).truncatedTo(unit).atZone(zone).toInstant();
+    }
+
+    private static class HeartRateBucket {
+        private Instant first;
+        private Instant last;
+        private long count;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private double sum;
+
+        void add(Instant time, long samples, long sampleMin, long sampleMax, double sampleSum) {
+            add(time);
+            count += samples;
+            min = Math.min(min, sampleMin);
+            max = Math.max(max, sampleMax);
+            sum += sampleSum;
+        }
+
+        void add(Instant time) {
+            first = first == null || time.isBefore(first) ? time : first;
+            last = last == null || time.isAfter(last) ? time : last;
+        }
+
+        BiometricData.HeartRateAggregate toAggregate() {
+            return new BiometricData.HeartRateAggregate(HealthTime.format(first), HealthTime.format(last),
+                    count, min, max, sum / count);
+        }
+    }
+}
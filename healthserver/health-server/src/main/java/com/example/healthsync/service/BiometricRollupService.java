@@ -0,0 +1,282 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricRollup;
+import com.example.healthsync.model.TrendBucket;
+import com.example.healthsync.model.TrendGranularity;
+import com.example.healthsync.repository.BiometricRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BiometricRollupService {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricRollupRepository repository;
+
+    /**
+     * Met à jour les résumés mensuels avec les jours qui viennent d'être sauvegardés.
+     * Un upsert par mois touché ; le résumé d'un jour est écrasé (REPLACE)
+     * ou complété par ses valeurs non nulles (MERGE), donc un renvoi ne fausse pas les totaux.
+     */
+    public void recordDays(String email, List<BiometricData> days, boolean merge) {
+        Map<String, Update> updatesByMonth = new LinkedHashMap<>();
+
+        for (BiometricData data : days) {
+            LocalDate date = parseDate(data.getDate());
+            if (date == null) {
+                continue;
+            }
+            Update update = updatesByMonth.computeIfAbsent(date.format(MONTH_FORMAT), month -> new Update());
+            String key = "days." + data.getDate();
+            BiometricRollup.DaySummary summary = summarize(data);
+
+            if (merge) {
+                setIfPresent(update, key + ".steps", summary.getSteps());
+                setIfPresent(update, key + ".avgHeartRate", summary.getAvgHeartRate());
+                setIfPresent(update, key + ".minHeartRate", summary.getMinHeartRate());
+                setIfPresent(update, key + ".maxHeartRate", summary.getMaxHeartRate());
+                setIfPresent(update, key + ".sleepHours", summary.getSleepHours());
+                setIfPresent(update, key + ".stressScore", summary.getStressScore());
+                setIfPresent(update, key + ".weightKg", summary.getWeightKg());
+            } else {
+                update.set(key, summary);
+            }
+        }
+
+        updatesByMonth.values().removeIf(update -> update.getUpdateObject().isEmpty());
+        if (updatesByMonth.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricRollup.class);
+        updatesByMonth.forEach((month, update) ->
+                bulk.upsert(Query.query(Criteria.where("email").is(email).and("month").is(month)), update));
+        bulk.execute();
+    }
+
+    /**
+     * Tendances sur [from, to] : lit un document par mois couvert, jamais les données brutes
+     */
+    public List<TrendBucket> getTrends(String email, LocalDate from, LocalDate to, TrendGranularity granularity) {
+        Map<LocalDate, BucketAccumulator> buckets = new TreeMap<>();
+
+        for (BiometricRollup rollup : repository.findMonthsBetween(email, from.format(MONTH_FORMAT), to.format(MONTH_FORMAT))) {
+            rollup.getDays().forEach((day, summary) -> {
+                LocalDate date = parseDate(day);
+                if (date == null || date.isBefore(from) || date.isAfter(to)) {
+                    return;
+                }
+                LocalDate start = switch (granularity) {
+                    case DAY -> date;
+                    case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                    case MONTH -> date.withDayOfMonth(1);
+                };
+                buckets.computeIfAbsent(start, s -> new BucketAccumulator()).add(summary);
+            });
+        }
+
+        List<TrendBucket> trends = new ArrayList<>(buckets.size());
+        buckets.forEach((start, accumulator) -> trends.add(accumulator.toBucket(start)));
+        return trends;
+    }
+
+    /**
+     * Recalcule tous les résumés d'un utilisateur depuis biometric_data
+     * (historique antérieur aux rollups, ou correction après incident).
+     * Chaque jour est réécrit par un $set sur le document de son mois (upsert), sans suppression préalable :
+     * les lecteurs ne voient jamais de résumés manquants et un jour mis à jour en parallèle n'est pas écrasé.
+     * Seuls les jours déjà résumés avant la relecture et absents de biometric_data sont retirés :
+     * un jour arrivé pendant la reconstruction est conservé.
+     */
+    public int rebuild(String email) {
+        Map<String, Set<String>> previousDays = new LinkedHashMap<>();
+        for (BiometricRollup rollup : repository.findMonthsBetween(email, "0000-00", "9999-99")) {
+            previousDays.put(rollup.getMonth(), rollup.getDays() != null ? rollup.getDays().keySet() : Set.of());
+        }
+
+        Query query = Query.query(Criteria.where("email").is(email));
+        query.fields().include("date", "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate",
+                "totalSleepHours", "stressScore", "weight");
+
+        Map<String, Map<String, BiometricRollup.DaySummary>> daysByMonth = new TreeMap<>();
+        int[] days = {0};
+        try (var documents = mongoTemplate.stream(query, BiometricData.class)) {
+            documents.forEach(data -> {
+                LocalDate date = parseDate(data.getDate());
+                if (date == null) {
+                    return;
+                }
+                daysByMonth.computeIfAbsent(date.format(MONTH_FORMAT), m -> new LinkedHashMap<>())
+                        .put(data.getDate(), summarize(data));
+                days[0]++;
+            });
+        }
+
+        Map<String, Update> updatesByMonth = new LinkedHashMap<>();
+        daysByMonth.forEach((month, summaries) -> {
+            Update update = new Update();
+            summaries.forEach((day, summary) -> update.set("days." + day, summary));
+            updatesByMonth.put(month, update);
+        });
+
+        // Jours résumés mais plus présents dans biometric_data (un mois entier disparu garde un document vide)
+        Map<String, Update> obsoleteByMonth = new LinkedHashMap<>();
+        previousDays.forEach((month, summarized) -> {
+            Map<String, BiometricRollup.DaySummary> current = daysByMonth.getOrDefault(month, Map.of());
+            summarized.stream()
+                    .filter(day -> !current.containsKey(day))
+                    .forEach(day -> updatesByMonth.computeIfAbsent(month, m -> {
+                        Update update = new Update();
+                        obsoleteByMonth.put(m, update);
+                        return update;
+                    }).unset("days." + day));
+        });
+
+        if (updatesByMonth.isEmpty()) {
+            return days[0];
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricRollup.class);
+        updatesByMonth.forEach((month, update) -> {
+            Query monthQuery = Query.query(Criteria.where("email").is(email).and("month").is(month));
+            if (obsoleteByMonth.containsKey(month)) {
+                bulk.updateOne(monthQuery, update);
+            } else {
+                bulk.upsert(monthQuery, update);
+            }
+        });
+        bulk.execute();
+
+        log.info("🔁 Rollups reconstruits pour {}: {} jours, {} mois", email, days[0], daysByMonth.size());
+        return days[0];
+    }
+
+    private static BiometricRollup.DaySummary summarize(BiometricData data) {
+        Double weight = null;
+        if (data.getWeight() != null) {
+            OptionalDouble average = data.getWeight().stream()
+                    .filter(w -> w.getWeight() != null)
+                    .mapToDouble(BiometricData.WeightRecord::getWeight)
+                    .average();
+            weight = average.isPresent() ? average.getAsDouble() : null;
+        }
+
+        return new BiometricRollup.DaySummary(
+                data.getTotalSteps(),
+                data.getAvgHeartRate(),
+                data.getMinHeartRate(),
+                data.getMaxHeartRate(),
+                parseDecimal(data.getTotalSleepHours()),
+                data.getStressScore(),
+                weight);
+    }
+
+    private static void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return date == null ? null : LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDecimal(String value) {
+        try {
+            return value == null ? null : Double.valueOf(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class BucketAccumulator {
+        private int days;
+        private long steps;
+        private int stepsDays;
+        private double heartRate;
+        private int heartRateDays;
+        private Integer minHeartRate;
+        private Integer maxHeartRate;
+        private double sleepHours;
+        private int sleepDays;
+        private double stress;
+        private int stressDays;
+        private double weight;
+        private int weightDays;
+
+        void add(BiometricRollup.DaySummary day) {
+            days++;
+            if (day.getSteps() != null) {
+                steps += day.getSteps();
+                stepsDays++;
+            }
+            if (day.getAvgHeartRate() != null) {
+                heartRate += day.getAvgHeartRate();
+                heartRateDays++;
+            }
+            if (day.getMinHeartRate() != null) {
+                minHeartRate = minHeartRate == null ? day.getMinHeartRate() : Math.min(minHeartRate, day.getMinHeartRate());
+            }
+            if (day.getMaxHeartRate() != null) {
+                maxHeartRate = maxHeartRate == null ? day.getMaxHeartRate() : Math.max(maxHeartRate, day.getMaxHeartRate());
+            }
+            if (day.getSleepHours() != null) {
+                sleepHours += day.getSleepHours();
+                sleepDays++;
+            }
+            if (day.getStressScore() != null) {
+                stress += day.getStressScore();
+                stressDays++;
+            }
+            if (day.getWeightKg() != null) {
+                weight += day.getWeightKg();
+                weightDays++;
+            }
+        }
+
+        TrendBucket toBucket(LocalDate start) {
+            return new TrendBucket(
+                    start.toString(),
+                    days,
+                    stepsDays == 0 ? null : steps,
+                    average(steps, stepsDays),
+                    average(heartRate, heartRateDays),
+                    minHeartRate,
+                    maxHeartRate,
+                    average(sleepHours, sleepDays),
+                    average(stress, stressDays),
+                    average(weight, weightDays));
+        }
+
+        private static Double average(double sum, int count) {
+            return count == 0 ? null : sum / count;
+        }
+    }
+}
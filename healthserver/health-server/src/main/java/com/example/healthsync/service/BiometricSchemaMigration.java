@@ -0,0 +1,126 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Conversion en arrière-plan des documents biometric_data antérieurs à SCHEMA_VERSION
+ * (décimales et horodatages stockés en texte). La lecture accepte les deux formats,
+ * l'application fonctionne donc pendant toute la migration.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BiometricSchemaMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${healthsync.migration.typed-fields.enabled:false}")
+    private boolean enabled;
+
+    @Value("${healthsync.migration.typed-fields.batch-size:500}")
+    private int batchSize;
+
+    // Pause entre deux lots pour ne pas concurrencer l'ingestion
+    @Value("${healthsync.migration.typed-fields.pause-ms:200}")
+    private long pauseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::migrate, "biometric-schema-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return nombre de documents convertis
+     */
+    public long migrate() {
+        long converted = 0;
+        String lastId = null;
+
+        try {
+            while (true) {
+                Criteria criteria = Criteria.where("schemaVersion").ne(BiometricData.SCHEMA_VERSION);
+                if (lastId != null) {
+                    criteria.and("_id").gt(new ObjectId(lastId));
+                }
+                Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+                List<BiometricData> batch = mongoTemplate.find(query, BiometricData.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                converted += convert(batch);
+                lastId = batch.get(batch.size() - 1).getId();
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Migration biometric_data interrompue après {} documents: {}", converted, e.getMessage());
+            return converted;
+        }
+
+        if (converted > 0) {
+            log.info("✅ Migration biometric_data terminée: {} documents convertis", converted);
+        }
+        return converted;
+    }
+
+    /**
+     * Réécrit chaque document relu (donc converti) ; le filtre sur receivedAt écarte
+     * ceux qu'une ingestion a modifiés entre-temps, ils seront repris au prochain démarrage.
+     */
+    private int convert(List<BiometricData> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+        for (BiometricData data : batch) {
+            data.setSchemaVersion(BiometricData.SCHEMA_VERSION);
+            removeDuplicateRecords(data);
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(data.getId())
+                    .and("receivedAt").is(data.getReceivedAt())
+                    .and("schemaVersion").ne(BiometricData.SCHEMA_VERSION)), data);
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    /**
+     * En mode MERGE, un même enregistrement a pu être ajouté deux fois ($addToSet comparait
+     * l'ancien format texte au nouveau) : une fois convertis, les doublons sont identiques
+     */
+    private static void removeDuplicateRecords(BiometricData data) {
+        data.setSteps(distinct(data.getSteps()));
+        data.setHeartRate(distinct(data.getHeartRate()));
+        data.setDistance(distinct(data.getDistance()));
+        data.setSleep(distinct(data.getSleep()));
+        data.setExercise(distinct(data.getExercise()));
+        data.setOxygenSaturation(distinct(data.getOxygenSaturation()));
+        data.setBodyTemperature(distinct(data.getBodyTemperature()));
+        data.setBloodPressure(distinct(data.getBloodPressure()));
+        data.setWeight(distinct(data.getWeight()));
+        data.setHeight(distinct(data.getHeight()));
+        data.setHydration(distinct(data.getHydration()));
+    }
+
+    private static <T> List<T> distinct(List<T> records) {
+        return records == null ? null : new ArrayList<>(new LinkedHashSet<>(records));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HealthDataStreamService {
+
+    private final BiometricDataService biometricDataService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Value("${healthsync.ingest.stream-batch-days:7}")
+    private int batchDays;
+
+    /**
+     * Lit un HealthData jour par jour avec le parser streaming de Jackson.
+     * Chaque lot de batchDays jours est sauvegardé dès qu'il est complet :
+     * la mémoire consommée est bornée par un lot, pas par tout l'envoi.
+     * Si "email" arrive après "dailyData", les jours restent en attente jusqu'à sa lecture.
+     * CBOR et Smile passent par le même parser streaming que le JSON.
+     */
+    public BiometricIngestResult ingest(InputStream body, MediaType contentType) throws IOException {
+        ObjectMapper objectMapper = mapperFor(contentType);
+        BiometricIngestResult result = new BiometricIngestResult();
+        List<HealthData.DailyData> pending = new ArrayList<>(batchDays);
+        String email = null;
+        int dayCount = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Format de données invalide: objet JSON attendu");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if ("email".equals(field)) {
+                    email = parser.getValueAsString();
+                    if (email == null || email.isBlank()) {
+                        throw new IllegalArgumentException("Email utilisateur manquant");
+                    }
+                    flushIfFull(email, pending, result);
+                } else if ("dailyData".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        pending.add(objectMapper.readValue(parser, HealthData.DailyData.class));
+                        dayCount++;
+                        flushIfFull(email, pending, result);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (dayCount == 0) {
+            throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
+        }
+        if (email == null) {
+            throw new IllegalArgumentException("Email utilisateur manquant");
+        }
+
+        if (!pending.isEmpty()) {
+            result.addAll(biometricDataService.saveDays(email, pending));
+        }
+        return result;
+    }
+
+    private ObjectMapper mapperFor(MediaType contentType) {
+        if (contentType != null && cborConverter.canRead(HealthData.class, contentType)) {
+            return cborConverter.getObjectMapper();
+        }
+        if (contentType != null && smileConverter.canRead(HealthData.class, contentType)) {
+            return smileConverter.getObjectMapper();
+        }
+        return objectMapper;
+    }
+
+    private void flushIfFull(String email, List<HealthData.DailyData> pending, BiometricIngestResult result) {
+        if (email != null && pending.size() >= batchDays) {
+            result.addAll(biometricDataService.saveDays(email, pending));
+            pending.clear();
+        }
+    }
+}
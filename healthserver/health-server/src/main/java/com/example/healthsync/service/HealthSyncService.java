@@ -0,0 +1,209 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.SyncState;
+import com.example.healthsync.util.HealthTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AccumulatorOperators;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Synchronisation delta avec l'app Android : GET /fetch/sync renvoie les points de reprise,
+ * POST /fetch/delta n'apporte que les enregistrements postérieurs, ajoutés au document du jour.
+ * Un enregistrement qui ne dépasse pas le point de reprise est ignoré : renvoyer un delta est sans effet.
+ * L'ajout et le point de reprise sont deux écritures : un delta rejoué avant que le point de reprise n'avance
+ * est réécrit, mais l'ajout ($addToSet) ne duplique pas les enregistrements déjà stockés.
+ * Un enregistrement arrivé en retard (montre synchronisée après coup) passe par POST /fetch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HealthSyncService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricDataService biometricDataService;
+
+    /**
+     * Un type de mesure : sa liste dans DailyData et l'horodatage qui fait avancer le point de reprise
+     */
+    private record Metric<R>(String name,
+                             Function<HealthData.DailyData, List<R>> records,
+                             BiConsumer<HealthData.DailyData, List<R>> setRecords,
+                             String endField,
+                             Function<R, String> end) {
+
+        /**
+         * Un enregistrement sans horodatage lisible ne peut pas être situé après le point de reprise :
+         * il est écarté, sinon chaque renvoi l'ajouterait une fois de plus
+         */
+        int keepAfter(HealthData.DailyData day, Instant watermark) {
+            List<R> list = records.apply(day);
+            if (list == null || watermark == null) {
+                return 0;
+            }
+            List<R> newer = new ArrayList<>(list.size());
+            int unreadable = 0;
+            for (R record : list) {
+                Instant time = HealthTime.parse(end.apply(record));
+                if (time == null) {
+                    unreadable++;
+                } else if (time.isAfter(watermark)) {
+                    newer.add(record);
+                }
+            }
+            setRecords.accept(day, newer);
+            return unreadable;
+        }
+
+        Instant latest(HealthData.DailyData day) {
+            List<R> list = records.apply(day);
+            Instant latest = null;
+            if (list != null) {
+                for (R record : list) {
+                    Instant time = HealthTime.parse(end.apply(record));
+                    if (time != null && (latest == null || time.isAfter(latest))) {
+                        latest = time;
+                    }
+                }
+            }
+            return latest;
+        }
+    }
+
+    private static final List<Metric<?>> METRICS = List.of(
+            new Metric<>("steps", HealthData.DailyData::getSteps, HealthData.DailyData::setSteps,
+                    "endTime", BiometricData.StepRecord::getEndTime),
+            new Metric<>("heartRate", HealthData.DailyData::getHeartRate, HealthData.DailyData::setHeartRate,
+                    "endTime", BiometricData.HeartRateRecord::getEndTime),
+            new Metric<>("distance", HealthData.DailyData::getDistance, HealthData.DailyData::setDistance,
+                    "endTime", BiometricData.DistanceRecord::getEndTime),
+            new Metric<>("sleep", HealthData.DailyData::getSleep, HealthData.DailyData::setSleep,
+                    "endTime", BiometricData.SleepRecord::getEndTime),
+            new Metric<>("exercise", HealthData.DailyData::getExercise, HealthData.DailyData::setExercise,
+                    "endTime", BiometricData.ExerciseRecord::getEndTime),
+            new Metric<>("oxygenSaturation", HealthData.DailyData::getOxygenSaturation, HealthData.DailyData::setOxygenSaturation,
+                    "time", BiometricData.OxygenSaturationRecord::getTime),
+            new Metric<>("bodyTemperature", HealthData.DailyData::getBodyTemperature, HealthData.DailyData::setBodyTemperature,
+                    "time", BiometricData.BodyTemperatureRecord::getTime),
+            new Metric<>("bloodPressure", HealthData.DailyData::getBloodPressure, HealthData.DailyData::setBloodPressure,
+                    "time", BiometricData.BloodPressureRecord::getTime),
+            new Metric<>("weight", HealthData.DailyData::getWeight, HealthData.DailyData::setWeight,
+                    "time", BiometricData.WeightRecord::getTime),
+            new Metric<>("height", HealthData.DailyData::getHeight, HealthData.DailyData::setHeight,
+                    "time", BiometricData.HeightRecord::getTime),
+            new Metric<>("hydration", HealthData.DailyData::getHydration, HealthData.DailyData::setHydration,
+                    "time", BiometricData.HydrationRecord::getTime)
+    );
+
+    /**
+     * Points de reprise de l'utilisateur. Au premier appel, ils sont déduits des données déjà
+     * reçues par POST /fetch, pour que le premier delta ne renvoie pas tout l'historique.
+     */
+    public SyncState getSyncState(String email) {
+        SyncState state = mongoTemplate.findById(email, SyncState.class);
+        if (state != null) {
+            return state;
+        }
+
+        Map<String, Instant> watermarks = watermarksFromStoredData(email);
+        return advance(email, watermarks);
+    }
+
+    public BiometricIngestResult ingestDelta(HealthData healthData) {
+        BiometricDataService.validate(healthData);
+        String email = healthData.getEmail();
+        Map<String, Instant> watermarks = getSyncState(email).getWatermarks();
+
+        int unreadable = 0;
+        for (HealthData.DailyData day : healthData.getDailyData()) {
+            for (Metric<?> metric : METRICS) {
+                unreadable += metric.keepAfter(day, watermarks.get(metric.name()));
+            }
+        }
+        if (unreadable > 0) {
+            log.warn("⚠️ Delta {}: {} enregistrements sans horodatage lisible ignorés", email, unreadable);
+        }
+
+        BiometricIngestResult result = biometricDataService.appendDays(email, healthData.getDailyData());
+
+        // Seuls les jours écrits font avancer les points de reprise : les autres seront renvoyés
+        Set<String> savedDates = new HashSet<>();
+        result.getSaved().forEach(saved -> savedDates.add(saved.getDate()));
+        Map<String, Instant> latest = new HashMap<>();
+        for (HealthData.DailyData day : healthData.getDailyData()) {
+            if (savedDates.contains(day.getDate())) {
+                METRICS.forEach(metric -> {
+                    Instant time = metric.latest(day);
+                    if (time != null) {
+                        latest.merge(metric.name(), time, (a, b) -> a.isAfter(b) ? a : b);
+                    }
+                });
+            }
+        }
+
+        if (!latest.isEmpty()) {
+            advance(email, latest);
+        }
+        return result;
+    }
+
+    /**
+     * $max : un point de reprise ne recule jamais, même avec des envois concurrents
+     */
+    private SyncState advance(String email, Map<String, Instant> watermarks) {
+        Update update = new Update().setOnInsert("_id", email);
+        watermarks.forEach((metric, time) -> update.max("watermarks." + metric, Date.from(time)));
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(email)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SyncState.class);
+    }
+
+    private Map<String, Instant> watermarksFromStoredData(String email) {
+        ProjectionOperation project = Aggregation.project();
+        GroupOperation group = Aggregation.group();
+        for (Metric<?> metric : METRICS) {
+            project = project.and(AccumulatorOperators.Max.maxOf(metric.name() + "." + metric.endField())).as(metric.name());
+            group = group.max(metric.name()).as(metric.name());
+        }
+
+        Document stored = mongoTemplate.aggregate(
+                Aggregation.newAggregation(Aggregation.match(Criteria.where("email").is(email)), project, group),
+                mongoTemplate.getCollectionName(BiometricData.class), Document.class).getUniqueMappedResult();
+
+        Map<String, Instant> watermarks = new HashMap<>();
+        if (stored != null) {
+            for (Metric<?> metric : METRICS) {
+                Object value = stored.get(metric.name());
+                Instant time = value instanceof Date date ? date.toInstant()
+                        : value instanceof String text ? HealthTime.parse(text) : null;
+                if (time != null) {
+                    watermarks.put(metric.name(), time);
+                }
+            }
+        }
+        return watermarks;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.IngestSummary;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métriques d'ingestion exposées sur /actuator/prometheus,
+ * plus une seule ligne de log DEBUG par envoi.
+ */
+@Slf4j
+@Component
+public class IngestMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary payloadBytes;
+    private final DistributionSummary daysPerUpload;
+
+    public IngestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.payloadBytes = DistributionSummary.builder("healthsync.ingest.payload.bytes")
+                .description("Taille des bodies reçus")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.daysPerUpload = DistributionSummary.builder("healthsync.ingest.days.per.upload")
+                .description("Nombre de jours par envoi")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Profondeur du journal d'ingestion asynchrone (entrées et octets en attente d'écriture MongoDB)
+     */
+    public void monitorQueue(AtomicInteger pendingEntries, AtomicLong pendingBytes) {
+        Gauge.builder("healthsync.ingest.queue.entries", pendingEntries, AtomicInteger::get)
+                .description("Envois acceptés en attente d'écriture")
+                .register(meterRegistry);
+        Gauge.builder("healthsync.ingest.queue.bytes", pendingBytes, AtomicLong::get)
+                .description("Taille du journal d'ingestion")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Durée d'une étape d'ingestion (convert, write, measurements, rollups)
+     */
+    public void recordStage(String stage, long nanos) {
+        Timer.builder("healthsync.ingest.stage")
+                .description("Durée des étapes d'ingestion")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Body compressé : octets reçus et décompressés, taux de compression (décompressé / reçu)
+     */
+    public void recordCompression(String encoding, long compressedBytes, long decompressedBytes) {
+        meterRegistry.counter("healthsync.ingest.compression.bytes", "encoding", encoding, "side", "compressed")
+                .increment(compressedBytes);
+        meterRegistry.counter("healthsync.ingest.compression.bytes", "encoding", encoding, "side", "decompressed")
+                .increment(decompressedBytes);
+        if (compressedBytes > 0) {
+            DistributionSummary.builder("healthsync.ingest.compression.ratio")
+                    .description("Taux de compression des bodies reçus")
+                    .tag("encoding", encoding)
+                    .register(meterRegistry)
+                    .record((double) decompressedBytes / compressedBytes);
+        }
+    }
+
+    /**
+     * Fenêtre de regroupement POST /fetch : jours reçus / jours écrits (1 = aucun recouvrement)
+     */
+    public void recordCoalescing(int uploads, int receivedDays, int writtenDays) {
+        meterRegistry.counter("healthsync.ingest.coalescing.uploads").increment(uploads);
+        meterRegistry.counter("healthsync.ingest.coalescing.days", "stage", "received").increment(receivedDays);
+        meterRegistry.counter("healthsync.ingest.coalescing.days", "stage", "written").increment(writtenDays);
+        if (writtenDays > 0) {
+            DistributionSummary.builder("healthsync.ingest.coalescing.ratio")
+                    .description("Jours reçus par jour écrit, par fenêtre de regroupement")
+                    .register(meterRegistry)
+                    .record((double) receivedDays / writtenDays);
+        }
+    }
+
+    public void recordRejected() {
+        meterRegistry.counter("healthsync.ingest.uploads", "outcome", "rejected").increment();
+    }
+
+    public void record(BiometricIngestResult result) {
+        IngestSummary summary = result.getSummary();
+
+        meterRegistry.counter("healthsync.ingest.uploads", "outcome", result.hasFailures() ? "partial" : "ok").increment();
+        meterRegistry.counter("healthsync.ingest.days", "outcome", "saved").increment(result.getSaved().size());
+        meterRegistry.counter("healthsync.ingest.days", "outcome", "failed").increment(result.getFailures().size());
+        summary.getDataPoints().forEach((type, count) ->
+                meterRegistry.counter("healthsync.ingest.datapoints", "type", type).increment(count));
+        daysPerUpload.record(summary.getDays());
+        if (summary.getBytes() >= 0) {
+            payloadBytes.record(summary.getBytes());
+        }
+
+        log.debug("Ingest summary - user={}, days={}, saved={}, failed={}, bytes={}, dataPoints={}",
+                result.getEmail(), summary.getDays(), result.getSaved().size(), result.getFailures().size(),
+                summary.getBytes(), summary.getDataPoints());
+    }
+}
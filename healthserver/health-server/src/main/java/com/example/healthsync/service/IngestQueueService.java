@@ -0,0 +1,353 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Ingestion asynchrone (POST /fetch/async) : chaque envoi validé est écrit dans un journal local
+ * (un fichier par envoi, fsync puis renommage atomique) avant la réponse 202,
+ * puis écrit dans MongoDB par un pool borné de workers.
+ * Un utilisateur est toujours traité par le même worker : ses envois restent dans l'ordre de réception.
+ * Le fichier n'est supprimé qu'après l'écriture MongoDB ; au redémarrage, le journal est rejoué.
+ * Les écritures étant des upserts par (email, date), un envoi rejoué deux fois ne crée pas de doublon.
+ * Les jours refusés par MongoDB sont mis de côté dans un fichier .failed avant la suppression de l'envoi.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IngestQueueService {
+
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final String FAILED_SUFFIX = ".failed";
+
+    private final BiometricDataService biometricDataService;
+    private final IngestMetrics ingestMetrics;
+    private final ObjectMapper objectMapper;
+
+    @Value("${healthsync.ingest.queue.dir:data/ingest-wal}")
+    private String directoryName;
+
+    @Value("${healthsync.ingest.queue.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${healthsync.ingest.queue.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${healthsync.ingest.queue.workers:4}")
+    private int workers;
+
+    @Value("${healthsync.ingest.queue.batch-entries:16}")
+    private int batchEntries;
+
+    @Value("${healthsync.ingest.queue.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger pendingEntries = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final List<BlockingQueue<Entry>> lanes = new ArrayList<>();
+    private Path directory;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    private record Entry(long sequence, Path file, String email, long bytes) {
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        directory = Path.of(directoryName);
+        Files.createDirectories(directory);
+        for (int i = 0; i < workers; i++) {
+            lanes.add(new LinkedBlockingQueue<>());
+        }
+        ingestMetrics.monitorQueue(pendingEntries, pendingBytes);
+
+        int replayed = replay();
+        if (replayed > 0) {
+            log.info("🔁 {} envois rejoués depuis le journal d'ingestion {}", replayed, directory.toAbsolutePath());
+        }
+
+        running = true;
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "ingest-queue-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        lanes.forEach(lane -> executor.execute(() -> drain(lane)));
+    }
+
+    /**
+     * Les envois encore dans le journal seront rejoués au prochain démarrage
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Valide et journalise un envoi.
+     * @return false si le journal est plein (l'appelant répond 429)
+     */
+    public boolean enqueue(HealthData healthData) throws IOException {
+        BiometricDataService.validate(healthData);
+        byte[] payload = objectMapper.writeValueAsBytes(healthData);
+
+        if (!reserve(payload.length)) {
+            ingestMetrics.recordRejected();
+            log.warn("⏳ Journal d'ingestion plein ({} envois, {} octets), envoi refusé pour {}",
+                    pendingEntries.get(), pendingBytes.get(), healthData.getEmail());
+            return false;
+        }
+
+        try {
+            long entrySequence = sequence.incrementAndGet();
+            Path file = write(entrySequence, payload);
+            laneOf(healthData.getEmail()).add(new Entry(entrySequence, file, healthData.getEmail(), payload.length));
+            return true;
+        } catch (IOException e) {
+            release(payload.length);
+            throw e;
+        }
+    }
+
+    private synchronized boolean reserve(long bytes) {
+        if (pendingEntries.get() >= maxEntries || pendingBytes.get() + bytes > maxBytes) {
+            return false;
+        }
+        pendingEntries.incrementAndGet();
+        pendingBytes.addAndGet(bytes);
+        return true;
+    }
+
+    private synchronized void release(long bytes) {
+        pendingEntries.decrementAndGet();
+        pendingBytes.addAndGet(-bytes);
+    }
+
+    private BlockingQueue<Entry> laneOf(String email) {
+        return lanes.get(Math.floorMod(email.hashCode(), lanes.size()));
+    }
+
+    private Path write(long entrySequence, byte[] payload) throws IOException {
+        return write(entrySequence, ENTRY_SUFFIX, payload);
+    }
+
+    private Path write(long entrySequence, String suffix, byte[] payload) throws IOException {
+        Path temp = directory.resolve(fileName(entrySequence) + suffix + TEMP_SUFFIX);
+        Path file = directory.resolve(fileName(entrySequence) + suffix);
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static String fileName(long entrySequence) {
+        return String.format("%019d", entrySequence);
+    }
+
+    /**
+     * Remet en file les envois journalisés mais pas encore écrits dans MongoDB.
+     * Un fichier .tmp est un envoi interrompu avant le 202 : le client le renverra.
+     */
+    private int replay() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+
+        int replayed = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            if (name.endsWith(FAILED_SUFFIX)) {
+                // Les séquences des jours mis de côté ne sont pas réattribuées
+                long failedSequence = Long.parseLong(name.substring(0, name.length() - FAILED_SUFFIX.length()));
+                sequence.set(Math.max(sequence.get(), failedSequence));
+                continue;
+            }
+            if (!name.endsWith(ENTRY_SUFFIX)) {
+                continue;
+            }
+
+            long entrySequence = Long.parseLong(name.substring(0, name.length() - ENTRY_SUFFIX.length()));
+            sequence.set(Math.max(sequence.get(), entrySequence));
+            HealthData healthData = read(file);
+            if (healthData == null) {
+                continue;
+            }
+
+            long bytes = Files.size(file);
+            pendingEntries.incrementAndGet();
+            pendingBytes.addAndGet(bytes);
+            laneOf(healthData.getEmail()).add(new Entry(entrySequence, file, healthData.getEmail(), bytes));
+            replayed++;
+        }
+        return replayed;
+    }
+
+    private HealthData read(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), HealthData.class);
+        } catch (IOException e) {
+            log.error("❌ Entrée illisible dans le journal d'ingestion, mise de côté: {} ({})", file, e.getMessage());
+            try {
+                Files.move(file, file.resolveSibling(file.getFileName() + CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                log.error("❌ Impossible de mettre de côté {}: {}", file, moveError.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private void drain(BlockingQueue<Entry> lane) {
+        List<Entry> batch = new ArrayList<>(batchEntries);
+        while (running) {
+            try {
+                batch.add(lane.take());
+                lane.drainTo(batch, batchEntries - 1);
+                persist(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Les envois consécutifs d'un même utilisateur sont regroupés en un seul saveDays.
+     * Un jour déjà présent dans le groupe ferme celui-ci : un bulk non ordonné
+     * ne garantirait pas que le dernier envoi du jour l'emporte.
+     */
+    private void persist(List<Entry> batch) throws InterruptedException {
+        int i = 0;
+        while (i < batch.size()) {
+            String email = batch.get(i).email();
+            List<Entry> group = new ArrayList<>();
+            List<HealthData.DailyData> days = new ArrayList<>();
+            Set<String> dates = new HashSet<>();
+
+            while (i < batch.size() && batch.get(i).email().equals(email)) {
+                Entry entry = batch.get(i);
+                HealthData healthData = read(entry.file());
+                if (healthData == null) {
+                    release(entry.bytes());
+                    i++;
+                    continue;
+                }
+                boolean overlaps = healthData.getDailyData().stream().anyMatch(day -> dates.contains(day.getDate()));
+                if (overlaps && !group.isEmpty()) {
+                    break;
+                }
+                healthData.getDailyData().forEach(day -> dates.add(day.getDate()));
+                days.addAll(healthData.getDailyData());
+                group.add(entry);
+                i++;
+            }
+
+            if (!group.isEmpty()) {
+                save(email, group, days);
+            }
+        }
+    }
+
+    /**
+     * MongoDB indisponible : on réessaie le même groupe, les envois suivants de l'utilisateur attendent.
+     * Les jours refusés un par un (erreur d'écriture) ne sont pas réessayés : ils sont mis de côté
+     * dans un fichier .failed, les fichiers de l'envoi ne sont supprimés qu'ensuite.
+     */
+    private void save(String email, List<Entry> group, List<HealthData.DailyData> days) throws InterruptedException {
+        while (running) {
+            try {
+                BiometricIngestResult result = biometricDataService.saveDays(email, days);
+                if (result.hasFailures()) {
+                    log.warn("Health data partially saved (async) - User: {}, Failed days: {}", email, result.getFailures());
+                    setAside(email, group, days, result);
+                }
+                result.getSummary().setBytes(group.stream().mapToLong(Entry::bytes).sum());
+                ingestMetrics.record(result);
+
+                group.forEach(this::complete);
+                return;
+            } catch (Exception e) {
+                log.error("❌ Écriture différée échouée pour {} ({} envois), nouvel essai dans {} ms: {}",
+                        email, group.size(), retryDelayMs, e.getMessage());
+                Thread.sleep(retryDelayMs);
+            }
+        }
+    }
+
+    /**
+     * Les jours en échec sont journalisés dans {séquence}.failed (non rejoué au démarrage, à reprendre manuellement).
+     * Une erreur d'écriture du fichier fait réessayer tout le groupe : l'envoi n'est pas supprimé.
+     */
+    private void setAside(String email, List<Entry> group, List<HealthData.DailyData> days,
+                          BiometricIngestResult result) throws IOException {
+        Set<String> failedDates = new HashSet<>();
+        result.getFailures().forEach(failure -> failedDates.add(failure.getDate()));
+
+        HealthData failed = new HealthData();
+        failed.setEmail(email);
+        failed.setDailyData(days.stream().filter(day -> failedDates.contains(day.getDate())).toList());
+
+        Path file = write(group.get(0).sequence(), FAILED_SUFFIX, objectMapper.writeValueAsBytes(failed));
+        log.error("❌ {} jours refusés par MongoDB pour {}, mis de côté dans {}",
+                failed.getDailyData().size(), email, file);
+    }
+
+    /**
+     * Un fichier qui n'a pas pu être supprimé sera rejoué au redémarrage, sans effet (upsert)
+     */
+    private void complete(Entry entry) {
+        try {
+            Files.deleteIfExists(entry.file());
+        } catch (IOException e) {
+            log.error("❌ Impossible de supprimer l'entrée {} du journal: {}", entry.file(), e.getMessage());
+        }
+        release(entry.bytes());
+    }
+}
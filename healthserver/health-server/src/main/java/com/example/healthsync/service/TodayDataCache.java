@@ -0,0 +1,53 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Document du jour de chaque utilisateur, gardé en mémoire pour les écrans qui interrogent
+ * /fetch/user/{userId}/today en boucle. L'absence de données est aussi mise en cache.
+ * Une entrée (email, date) est invalidée par chaque écriture de ce jour sur cette instance ;
+ * le TTL borne le retard vis-à-vis des écritures reçues par les autres instances.
+ * Métriques : cache_gets{cache="today", result="hit|miss"}, cache_size, cache_evictions
+ */
+@Component
+public class TodayDataCache {
+
+    private record Key(String email, String date) {
+    }
+
+    private record CachedDay(BiometricData data) {
+    }
+
+    private final Cache<Key, CachedDay> cache;
+
+    public TodayDataCache(MeterRegistry meterRegistry,
+                          @Value("${healthsync.cache.today.max-users:10000}") long maxUsers,
+                          @Value("${healthsync.cache.today.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "today");
+    }
+
+    /**
+     * @param loader lecture MongoDB, appelée seulement si (email, date) n'est pas en cache
+     */
+    public BiometricData get(String email, String date, Function<String, BiometricData> loader) {
+        return cache.get(new Key(email, date), key -> new CachedDay(loader.apply(email))).data();
+    }
+
+    public void invalidate(String email, String date) {
+        cache.invalidate(new Key(email, date));
+    }
+}
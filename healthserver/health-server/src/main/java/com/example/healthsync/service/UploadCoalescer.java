@@ -0,0 +1,185 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestWriteMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regroupement des envois rapprochés d'un même utilisateur (POST /fetch) :
+ * le premier envoi ouvre une fenêtre de coalescing.window ; les envois reçus pendant la fenêtre
+ * y sont fusionnés par date, puis un seul saveDays écrit chaque (email, date) une fois.
+ * Chaque appelant attend l'écriture et reçoit le résultat de ses propres jours.
+ * Désactivé par défaut (fenêtre PT0S) : l'envoi qui ouvre la fenêtre garde son thread Tomcat pendant toute l'attente.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadCoalescer {
+
+    private final BiometricDataService biometricDataService;
+    private final IngestMetrics ingestMetrics;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+    @Value("${healthsync.ingest.coalescing.window:PT0S}")
+    private Duration window;
+
+    @Value("${healthsync.ingest.write-mode:REPLACE}")
+    private IngestWriteMode writeMode;
+
+    private static class Batch {
+        private final Map<String, HealthData.DailyData> days = new LinkedHashMap<>();
+        private final CompletableFuture<BiometricIngestResult> result = new CompletableFuture<>();
+        private int uploads;
+        private int receivedDays;
+    }
+
+    public BiometricIngestResult save(HealthData healthData) {
+        BiometricDataService.validate(healthData);
+        if (window.isZero() || window.isNegative()) {
+            return biometricDataService.saveBiometricData(healthData);
+        }
+
+        String email = healthData.getEmail();
+        boolean[] opened = {false};
+        // Ajout sous le verrou de la clé : une fenêtre retirée de la map ne reçoit plus de jours
+        Batch batch = batches.compute(email, (key, open) -> {
+            Batch target = open;
+            if (target == null) {
+                target = new Batch();
+                opened[0] = true;
+            }
+            add(target, healthData.getDailyData());
+            return target;
+        });
+
+        if (opened[0]) {
+            flush(email, batch);
+        }
+        return resultFor(healthData, join(batch.result));
+    }
+
+    /**
+     * Exécuté par le thread de l'envoi qui a ouvert la fenêtre.
+     * Le résultat est toujours complété, même sur une Error : sinon les autres envois de la fenêtre attendraient indéfiniment.
+     */
+    private void flush(String email, Batch batch) {
+        try {
+            Thread.sleep(window.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            batches.remove(email, batch);
+            List<HealthData.DailyData> days = new ArrayList<>(batch.days.values());
+            ingestMetrics.recordCoalescing(batch.uploads, batch.receivedDays, days.size());
+            if (batch.uploads > 1) {
+                log.debug("🧩 {} envois regroupés pour {}: {} jours reçus, {} écrits",
+                        batch.uploads, email, batch.receivedDays, days.size());
+            }
+            batch.result.complete(biometricDataService.saveDays(email, days));
+        } catch (Throwable e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    private void add(Batch batch, List<HealthData.DailyData> days) {
+        batch.uploads++;
+        batch.receivedDays += days.size();
+        for (HealthData.DailyData day : days) {
+            batch.days.merge(day.getDate(), day, writeMode == IngestWriteMode.MERGE
+                    ? UploadCoalescer::merge
+                    : (older, newer) -> newer);
+        }
+    }
+
+    /**
+     * Même résultat que deux écritures MERGE successives :
+     * agrégats non nuls du dernier envoi, mesures détaillées réunies sans doublons
+     */
+    private static HealthData.DailyData merge(HealthData.DailyData older, HealthData.DailyData newer) {
+        HealthData.DailyData merged = new HealthData.DailyData();
+        merged.setDate(newer.getDate());
+        merged.setTotalSteps(latest(older.getTotalSteps(), newer.getTotalSteps()));
+        merged.setMinHeartRate(latest(older.getMinHeartRate(), newer.getMinHeartRate()));
+        merged.setMaxHeartRate(latest(older.getMaxHeartRate(), newer.getMaxHeartRate()));
+        merged.setAvgHeartRate(latest(older.getAvgHeartRate(), newer.getAvgHeartRate()));
+        merged.setTotalDistanceKm(latest(older.getTotalDistanceKm(), newer.getTotalDistanceKm()));
+        merged.setTotalSleepHours(latest(older.getTotalSleepHours(), newer.getTotalSleepHours()));
+        merged.setTotalHydrationLiters(latest(older.getTotalHydrationLiters(), newer.getTotalHydrationLiters()));
+        merged.setStressLevel(latest(older.getStressLevel(), newer.getStressLevel()));
+        merged.setStressScore(latest(older.getStressScore(), newer.getStressScore()));
+
+        merged.setSteps(union(older.getSteps(), newer.getSteps()));
+        merged.setHeartRate(union(older.getHeartRate(), newer.getHeartRate()));
+        merged.setDistance(union(older.getDistance(), newer.getDistance()));
+        merged.setSleep(union(older.getSleep(), newer.getSleep()));
+        merged.setExercise(union(older.getExercise(), newer.getExercise()));
+        merged.setOxygenSaturation(union(older.getOxygenSaturation(), newer.getOxygenSaturation()));
+        merged.setBodyTemperature(union(older.getBodyTemperature(), newer.getBodyTemperature()));
+        merged.setBloodPressure(union(older.getBloodPressure(), newer.getBloodPressure()));
+        merged.setWeight(union(older.getWeight(), newer.getWeight()));
+        merged.setHeight(union(older.getHeight(), newer.getHeight()));
+        merged.setHydration(union(older.getHydration(), newer.getHydration()));
+        return merged;
+    }
+
+    private static <T> T latest(T older, T newer) {
+        return newer != null ? newer : older;
+    }
+
+    private static <T> List<T> union(List<T> older, List<T> newer) {
+        if (older == null || newer == null) {
+            return newer != null ? newer : older;
+        }
+        Set<T> records = new LinkedHashSet<>(older);
+        records.addAll(newer);
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * Résultat de l'écriture groupée restreint aux dates de cet envoi ; le résumé décrit ce que l'appelant a envoyé
+     */
+    private static BiometricIngestResult resultFor(HealthData healthData, BiometricIngestResult written) {
+        Set<String> dates = new HashSet<>();
+        BiometricIngestResult result = new BiometricIngestResult();
+        result.setEmail(healthData.getEmail());
+        for (HealthData.DailyData day : healthData.getDailyData()) {
+            dates.add(day.getDate());
+            result.getSummary().addDay(day);
+        }
+        written.getSaved().stream().filter(saved -> dates.contains(saved.getDate())).forEach(result.getSaved()::add);
+        written.getFailures().stream().filter(failure -> dates.contains(failure.getDate())).forEach(result.getFailures()::add);
+        return result;
+    }
+
+    private static BiometricIngestResult join(CompletableFuture<BiometricIngestResult> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
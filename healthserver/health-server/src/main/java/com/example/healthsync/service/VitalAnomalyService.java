@@ -0,0 +1,160 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.model.VitalAlert;
+import com.example.healthsync.model.VitalBaseline;
+import com.example.healthsync.repository.VitalAlertRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Détection d'anomalies au fil de l'ingestion : chaque mesure (fréquence cardiaque, SpO2, tension, température)
+ * est comparée à la moyenne / variance exponentielles de l'utilisateur, puis les met à jour.
+ * Un seul document de référence par utilisateur, lu et réécrit une fois par envoi : l'historique n'est jamais relu.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VitalAnomalyService {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_ALERTS = 200;
+
+    /**
+     * Écart-type minimal par signe vital : sur une série très stable,
+     * une variation physiologiquement banale ne doit pas passer pour une anomalie
+     */
+    private static final Map<String, Double> MIN_STD_DEV = Map.of(
+            BiometricMeasurement.HEART_RATE, 3.0,
+            BiometricMeasurement.OXYGEN_SATURATION, 1.0,
+            BiometricMeasurement.BODY_TEMPERATURE, 0.2,
+            VitalAlert.SYSTOLIC, 5.0,
+            VitalAlert.DIASTOLIC, 4.0);
+
+    private final MongoTemplate mongoTemplate;
+    private final VitalAlertRepository repository;
+
+    @Value("${healthsync.anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${healthsync.anomaly.alpha:0.05}")
+    private double alpha;
+
+    @Value("${healthsync.anomaly.threshold:4.0}")
+    private double threshold;
+
+    @Value("${healthsync.anomaly.warmup-samples:30}")
+    private long warmupSamples;
+
+    @Value("${healthsync.anomaly.cooldown:PT15M}")
+    private Duration cooldown;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Met à jour la référence de l'utilisateur avec les mesures d'un envoi et enregistre les alertes levées.
+     * Les mesures antérieures à la dernière déjà vue sont ignorées : renvoyer un jour ne crée ni alerte ni biais.
+     * Deux envois simultanés du même utilisateur : @Version détecte le conflit, le calcul est refait.
+     */
+    public List<VitalAlert> process(String email, List<BiometricMeasurement> measurements) {
+        if (!enabled || measurements.isEmpty()) {
+            return List.of();
+        }
+
+        List<BiometricMeasurement> ordered = new ArrayList<>(measurements);
+        ordered.sort(Comparator.comparing(BiometricMeasurement::getTime));
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            VitalBaseline baseline = mongoTemplate.findById(email, VitalBaseline.class);
+            if (baseline == null) {
+                baseline = new VitalBaseline(email);
+            }
+
+            List<VitalAlert> alerts = new ArrayList<>();
+            for (BiometricMeasurement m : ordered) {
+                if (BiometricMeasurement.BLOOD_PRESSURE.equals(m.getType())) {
+                    observe(baseline, VitalAlert.SYSTOLIC, m.getTime(), m.getValue(), alerts);
+                    observe(baseline, VitalAlert.DIASTOLIC, m.getTime(), m.getDiastolic(), alerts);
+                } else {
+                    observe(baseline, m.getType(), m.getTime(), m.getValue(), alerts);
+                }
+            }
+
+            try {
+                mongoTemplate.save(baseline);
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                log.debug("Référence des signes vitaux modifiée en parallèle pour {}, essai {}/{}", email, attempt, MAX_ATTEMPTS);
+                continue;
+            }
+
+            if (!alerts.isEmpty()) {
+                mongoTemplate.insert(alerts, VitalAlert.class);
+                log.info("🚨 {} alertes signes vitaux pour {}", alerts.size(), email);
+            }
+            return alerts;
+        }
+
+        log.warn("⚠️ Référence des signes vitaux non mise à jour pour {} après {} essais", email, MAX_ATTEMPTS);
+        return List.of();
+    }
+
+    /**
+     * z-score calculé avant la mise à jour, puis EWMA incrémentale :
+     * mean += α·δ ; variance = (1 − α)·(variance + α·δ²)
+     * Une alerte par signe vital au plus tous les cooldown (une tachycardie dense ne produit pas 60 alertes).
+     */
+    private void observe(VitalBaseline baseline, String metric, Instant time, Double value, List<VitalAlert> alerts) {
+        if (value == null || time == null) {
+            return;
+        }
+        VitalBaseline.Stats stats = baseline.getMetrics().computeIfAbsent(metric, key -> new VitalBaseline.Stats());
+        if (stats.getLastTime() != null && !time.isAfter(stats.getLastTime())) {
+            return;
+        }
+
+        if (stats.getCount() == 0) {
+            stats.setMean(value);
+            stats.setVariance(0);
+        } else {
+            double delta = value - stats.getMean();
+            double stdDev = Math.max(Math.sqrt(stats.getVariance()), MIN_STD_DEV.getOrDefault(metric, 0.0));
+            double zScore = delta / stdDev;
+
+            boolean cooledDown = stats.getLastAlertTime() == null
+                    || Duration.between(stats.getLastAlertTime(), time).compareTo(cooldown) >= 0;
+            if (stats.getCount() >= warmupSamples && Math.abs(zScore) >= threshold && cooledDown) {
+                alerts.add(new VitalAlert(baseline.getEmail(), metric, time, value, stats.getMean(), zScore));
+                stats.setLastAlertTime(time);
+            }
+
+            double increment = alpha * delta;
+            stats.setMean(stats.getMean() + increment);
+            stats.setVariance((1 - alpha) * (stats.getVariance() + delta * increment));
+        }
+        stats.setCount(stats.getCount() + 1);
+        stats.setLastTime(time);
+    }
+
+    /**
+     * Alertes d'un patient depuis from, les plus récentes d'abord
+     */
+    public List<VitalAlert> findAlerts(String email, Instant from, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_ALERTS));
+        return repository.findByEmailAndTimeGreaterThanEqualOrderByTimeDesc(email, from, PageRequest.of(0, size));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.healthsync.util;
+
+import org.springframework.data.convert.PropertyValueConversions;
+import org.springframework.data.convert.PropertyValueConverter;
+import org.springframework.data.convert.SimplePropertyValueConversions;
+import org.springframework.data.convert.ValueConversionContext;
+import org.springframework.data.mapping.PersistentProperty;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résolution des @ValueConverter mémorisée par propriété.
+ * SimplePropertyValueConversions refait la recherche (annotations, registre, fabrique)
+ * à chaque valeur écrite ou lue ; le résultat ne dépend pourtant que de la propriété.
+ */
+public class CachedPropertyValueConversions implements PropertyValueConversions {
+
+    private final SimplePropertyValueConversions delegate = new SimplePropertyValueConversions();
+    private final Map<PersistentProperty<?>, Optional<PropertyValueConverter<?, ?, ?>>> converters = new ConcurrentHashMap<>();
+
+    public CachedPropertyValueConversions() {
+        delegate.afterPropertiesSet();
+    }
+
+    @Override
+    public boolean hasValueConverter(PersistentProperty<?> property) {
+        return lookup(property).isPresent();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <DV, SV, P extends PersistentProperty<P>, VCC extends ValueConversionContext<P>> PropertyValueConverter<DV, SV, VCC> getValueConverter(P property) {
+        return (PropertyValueConverter<DV, SV, VCC>) lookup(property).orElse(null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Optional<PropertyValueConverter<?, ?, ?>> lookup(PersistentProperty<?> property) {
+        return converters.computeIfAbsent(property, p -> delegate.hasValueConverter(p)
+                ? Optional.of(delegate.getValueConverter((PersistentProperty) p))
+                : Optional.empty());
+    }
+}
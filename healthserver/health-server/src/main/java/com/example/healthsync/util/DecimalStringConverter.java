@@ -0,0 +1,48 @@
+package com.example.healthsync.util;
+
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+import java.math.BigDecimal;
+
+/**
+ * Décimales envoyées en texte par l'app ("3.40") : stockées en Decimal128 dans MongoDB
+ * pour permettre index de plage et $sum / $avg côté serveur. Decimal128 garde l'échelle :
+ * "0.00" est relu "0.00". Une autre écriture ("3,40", "1e3", texte illisible) est stockée telle quelle.
+ */
+public class DecimalStringConverter implements MongoValueConverter<String, Object> {
+
+    @Override
+    public String read(Object value, MongoConversionContext context) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue().toPlainString();
+        }
+        return value.toString();
+    }
+
+    @Override
+    public Object write(String value, MongoConversionContext context) {
+        BigDecimal decimal = parseExact(value);
+        return decimal != null ? new Decimal128(decimal) : value;
+    }
+
+    /**
+     * @return la valeur si la chaîne est exactement son écriture décimale simple, sinon null
+     */
+    static BigDecimal parseExact(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            BigDecimal decimal = new BigDecimal(value);
+            if (!decimal.toPlainString().equals(value)) {
+                return null;
+            }
+            new Decimal128(decimal);  // Plus de 34 chiffres significatifs : non représentable sans arrondi
+            return decimal;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.healthsync.util;
+
+import java.util.Arrays;
+
+/**
+ * Encodage compact d'une série d'entiers proches (ex : BPM successifs).
+ * Format : [version][nombre de valeurs en varint][deltas zigzag en varint...]
+ * Un BPM stable tient sur 1 octet au lieu des ~16 octets d'un élément de tableau BSON.
+ */
+public final class DeltaVarintCodec {
+
+    private static final byte VERSION = 1;
+
+    private DeltaVarintCodec() {
+    }
+
+    public static byte[] encode(long[] values) {
+        byte[] buffer = new byte[1 + 10 + values.length * 10];
+        int pos = 0;
+        buffer[pos++] = VERSION;
+        pos = writeVarint(buffer, pos, values.length);
+
+        long previous = 0;
+        for (long value : values) {
+            long delta = value - previous;
+            pos = writeVarint(buffer, pos, (delta << 1) ^ (delta >> 63));
+            previous = value;
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    public static long[] decode(byte[] packed) {
+        if (packed.length == 0 || packed[0] != VERSION) {
+            throw new IllegalArgumentException("Encodage d'échantillons inconnu");
+        }
+        int[] pos = {1};
+        long[] values = new long[(int) readVarint(packed, pos)];
+
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            long zigzag = readVarint(packed, pos);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarint(byte[] buffer, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.healthsync.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
+
+/**
+ * Lecture des horodatages envoyés par Health Connect.
+ * L'app Android envoie "yyyy-MM-dd HH:mm:ss" (heure locale, sans fuseau) ; l'ISO avec ou sans fuseau est aussi accepté.
+ * Les heures sans fuseau sont lues et réécrites dans un fuseau fixe (healthsync.time.zone), pas celui de la machine :
+ * les Date déjà stockées doivent être relues avec le fuseau qui les a écrites.
+ */
+public final class HealthTime {
+
+    /**
+     * Format de l'app (le front découpe sur l'espace pour afficher l'heure)
+     */
+    public static final DateTimeFormatter CLIENT_FORMAT = new DateTimeFormatterBuilder()
+            .append(ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private static final DateTimeFormatter CLIENT_OUTPUT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile ZoneId zone = ZoneOffset.UTC;
+
+    private HealthTime() {
+    }
+
+    /**
+     * Fuseau des heures sans fuseau, fixé au démarrage par MongoConversionsConfig (avant toute lecture ou écriture MongoDB)
+     */
+    public static void useZone(ZoneId zoneId) {
+        zone = zoneId;
+    }
+
+    public static ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * @return l'instant correspondant, ou null si la chaîne est absente ou illisible.
+     * Une heure sans fuseau est interprétée dans le fuseau configuré.
+     */
+    public static Instant parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            // Une seule analyse, sans exception quand le fuseau est absent (chemin chaud de l'ingestion)
+            if (value.length() > 10 && value.charAt(10) == ' ') {
+                return LocalDateTime.parse(value, CLIENT_FORMAT).atZone(zone).toInstant();
+            }
+            TemporalAccessor parsed = ISO_DATE_TIME.parse(value);
+            if (parsed.isSupported(ChronoField.OFFSET_SECONDS)) {
+                return OffsetDateTime.from(parsed).toInstant();
+            }
+            return LocalDateTime.from(parsed).atZone(zone).toInstant();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Format relu par l'API, celui de l'app : heure dans le fuseau configuré, sans fuseau
+     */
+    public static String format(Instant instant) {
+        return LocalDateTime.ofInstant(instant, zone).format(CLIENT_OUTPUT);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.healthsync.util;
+
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Horodatages des enregistrements : stockés en Date BSON (epoch millis) dans MongoDB
+ * quand la chaîne est au format de l'app ("yyyy-MM-dd HH:mm:ss"), relue à l'identique dans le fuseau configuré (HealthTime).
+ * Toute autre chaîne (ISO avec T ou fuseau, fractions de seconde, texte illisible) est stockée telle quelle :
+ * l'API renvoie toujours exactement la chaîne reçue.
+ */
+public class TimeStringConverter implements MongoValueConverter<String, Object> {
+
+    @Override
+    public String read(Object value, MongoConversionContext context) {
+        if (value instanceof Date date) {
+            return HealthTime.format(date.toInstant());
+        }
+        return value.toString();
+    }
+
+    @Override
+    public Object write(String value, MongoConversionContext context) {
+        Instant instant = HealthTime.parse(value);
+        return instant != null && HealthTime.format(instant).equals(value) ? Date.from(instant) : value;
+    }
+}
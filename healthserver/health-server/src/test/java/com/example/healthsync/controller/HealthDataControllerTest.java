@@ -0,0 +1,161 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.BiometricMeasurementService;
+import com.example.healthsync.service.BiometricRollupService;
+import com.example.healthsync.service.HealthDataStreamService;
+import com.example.healthsync.service.HealthSyncService;
+import com.example.healthsync.service.IngestMetrics;
+import com.example.healthsync.service.IngestQueueService;
+import com.example.healthsync.service.UploadCoalescer;
+import com.example.healthsync.service.VitalAnomalyService;
+import com.example.healthsync.support.InMemoryMongo;
+import com.example.healthsync.support.TestServices;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HealthDataControllerTest {
+
+    private static final String EMAIL = "patient@example.com";
+
+    private InMemoryMongo mongo;
+    private ExecutorService executor;
+    private IngestQueueService ingestQueueService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        executor = Executors.newSingleThreadExecutor();
+        BiometricDataService biometricDataService = TestServices.biometricDataService(mongo, executor);
+        ingestQueueService = mock(IngestQueueService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new HealthDataController(
+                biometricDataService,
+                mock(HealthDataStreamService.class),
+                mock(BiometricMeasurementService.class),
+                mock(BiometricRollupService.class),
+                mock(IngestMetrics.class),
+                ingestQueueService,
+                mock(HealthSyncService.class),
+                mock(VitalAnomalyService.class),
+                mock(UploadCoalescer.class))).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        mongo.close();
+    }
+
+    @Test
+    void pagesWalkTiesOnReceivedAtWithoutLossOrRepeat() throws Exception {
+        // Un envoi de plusieurs jours partage le même receivedAt : 5 égalités à cheval sur les pages de 2
+        LocalDateTime batch = LocalDateTime.of(2025, 10, 30, 8, 0);
+        for (int d = 1; d <= 5; d++) {
+            insert("2025-10-0" + d, batch);
+        }
+        insert("2025-10-06", batch.plusHours(1));
+        insert("2025-09-30", batch.minusHours(1));
+
+        List<String> dates = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/fetch/user/{userId}", EMAIL)
+                            .param("size", "2")
+                            .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            for (Map<?, ?> day : new ObjectMapper().readValue(result.getResponse().getContentAsByteArray(), Map[].class)) {
+                dates.add((String) day.get("date"));
+            }
+            cursor = result.getResponse().getHeader(HealthDataController.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(4, pages);
+        assertEquals(7, dates.size());
+        assertEquals(7, new HashSet<>(dates).size());
+        assertEquals("2025-10-06", dates.get(0));
+        assertEquals("2025-09-30", dates.get(6));
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        insert("2025-10-01", LocalDateTime.of(2025, 10, 1, 8, 0));
+        insert("2025-10-02", LocalDateTime.of(2025, 10, 2, 8, 0));
+
+        MvcResult result = mockMvc.perform(get("/fetch/user/{userId}", EMAIL).param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(null, result.getResponse().getHeader(HealthDataController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void malformedCursorsAreRejectedWith400() throws Exception {
+        insert("2025-10-01", LocalDateTime.of(2025, 10, 1, 8, 0));
+
+        for (String cursor : List.of(
+                "%%%pas-du-base64",
+                encode("2025-10-01T08:00"),
+                encode("pas-une-date|" + "0".repeat(24)),
+                encode("2025-10-01T08:00|pas-un-objectid"))) {
+            MvcResult result = mockMvc.perform(get("/fetch/user/{userId}", EMAIL).param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andReturn();
+            assertTrue(result.getResponse().getContentAsString(StandardCharsets.UTF_8).contains("Curseur de pagination invalide"));
+        }
+    }
+
+    @Test
+    void fullIngestJournalAnswers429WithRetryAfter() throws Exception {
+        when(ingestQueueService.enqueue(any())).thenReturn(false);
+
+        mockMvc.perform(post("/fetch/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + EMAIL + "\",\"dailyData\":[{\"date\":\"2025-10-30\"}]}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+    }
+
+    private void insert(String date, LocalDateTime receivedAt) {
+        BiometricData data = new BiometricData();
+        data.setEmail(EMAIL);
+        data.setDate(date);
+        data.setReceivedAt(receivedAt);
+        mongo.template().insert(data);
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.InMemoryMongo;
+import com.example.healthsync.support.TestServices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BiometricDataServiceTest {
+
+    private static final String EMAIL = "patient@example.com";
+
+    private InMemoryMongo mongo;
+    private ExecutorService executor;
+    private BiometricDataService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        executor = Executors.newFixedThreadPool(2);
+        service = TestServices.biometricDataService(mongo, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        mongo.close();
+    }
+
+    @Test
+    void todayIsTheMostRecentReceptionWhenLegacyDuplicatesRemain() {
+        String today = LocalDate.now().toString();
+        mongo.template().insert(day(today, LocalDateTime.now().minusHours(2), 1000));
+        mongo.template().insert(day(today, LocalDateTime.now().minusHours(1), 2000));
+
+        assertEquals(2000, service.getTodayData(EMAIL).getTotalSteps());
+    }
+
+    @Test
+    void replacedDayIsServedWhenLegacyDuplicatesRemain() {
+        String today = LocalDate.now().toString();
+        mongo.template().insert(day(today, LocalDateTime.now().minusHours(2), 1000));
+        mongo.template().insert(day(today, LocalDateTime.now().minusHours(1), 2000));
+
+        HealthData.DailyData upload = new HealthData.DailyData();
+        upload.setDate(today);
+        upload.setTotalSteps(3000);
+        HealthData healthData = new HealthData();
+        healthData.setEmail(EMAIL);
+        healthData.setDailyData(List.of(upload));
+        assertTrue(service.saveBiometricData(healthData).getFailures().isEmpty());
+
+        assertEquals(3000, service.getTodayData(EMAIL).getTotalSteps());
+    }
+
+    @Test
+    void packedStorageLeavesTheUploadedRecordsUntouched() {
+        ReflectionTestUtils.setField(service, "packHeartRate", true);
+        BiometricData.HeartRateRecord record = new BiometricData.HeartRateRecord(
+                List.of(72L, 75L, 70L), "2025-10-30 16:05:00", "2025-10-30 16:08:00");
+        HealthData.DailyData upload = new HealthData.DailyData();
+        upload.setDate("2025-10-30");
+        upload.setHeartRate(List.of(record));
+        HealthData healthData = new HealthData();
+        healthData.setEmail(EMAIL);
+        healthData.setDailyData(List.of(upload));
+
+        assertTrue(service.saveBiometricData(healthData).getFailures().isEmpty());
+
+        assertEquals(List.of(72L, 75L, 70L), record.getSamples());
+        assertNull(record.getPackedSamples());
+        BiometricData stored = mongo.template().findOne(
+                Query.query(Criteria.where("email").is(EMAIL).and("date").is("2025-10-30")), BiometricData.class);
+        BiometricData.HeartRateRecord storedRecord = stored.getHeartRate().get(0);
+        assertNotNull(storedRecord.getPackedSamples());
+        assertEquals(List.of(72L, 75L, 70L), storedRecord.getSamples());
+    }
+
+    static BiometricData day(String date, LocalDateTime receivedAt, int steps) {
+        BiometricData data = new BiometricData();
+        data.setEmail(EMAIL);
+        data.setDate(date);
+        data.setReceivedAt(receivedAt);
+        data.setTotalSteps(steps);
+        return data;
+    }
+}
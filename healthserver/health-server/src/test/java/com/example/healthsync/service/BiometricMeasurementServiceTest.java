@@ -0,0 +1,69 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricMeasurement;
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BiometricMeasurementServiceTest {
+
+    // Extrait d'un envoi réel de l'app Android : horodatages "yyyy-MM-dd HH:mm:ss", sans fuseau
+    private static final String PAYLOAD = """
+            {
+              "email": "patient@example.com",
+              "dailyData": [{
+                "date": "2025-10-30",
+                "heartRate": [
+                  {"samples": [72, 75, 78, 80], "startTime": "2025-10-30 16:05:00", "endTime": "2025-10-30 16:09:00"}
+                ],
+                "oxygenSaturation": [{"percentage": 97.5, "time": "2025-10-30 16:05:09"}],
+                "bodyTemperature": [{"temperature": 36.8, "time": "2025-10-30 07:30:00"}],
+                "bloodPressure": [{"systolic": 120.0, "diastolic": 80.0, "time": "2025-10-30 08:00:00"}]
+              }]
+            }
+            """;
+
+    @Test
+    void extractsEveryMeasurementOfARealClientPayload() throws Exception {
+        HealthData healthData = new ObjectMapper().readValue(PAYLOAD, HealthData.class);
+        BiometricData data = BiometricDataMapper.toBiometricData(healthData.getEmail(), LocalDateTime.now(),
+                healthData.getDailyData().get(0));
+
+        List<BiometricMeasurement> measurements = BiometricMeasurementService.extract(data);
+
+        assertEquals(7, measurements.size());
+
+        List<BiometricMeasurement> heartRate = measurements.stream()
+                .filter(m -> m.getType().equals(BiometricMeasurement.HEART_RATE))
+                .toList();
+        assertEquals(4, heartRate.size());
+        assertEquals(local("2025-10-30T16:05:00"), heartRate.get(0).getTime().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        assertEquals(local("2025-10-30T16:06:00"), heartRate.get(1).getTime().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        assertEquals(80.0, heartRate.get(3).getValue());
+
+        BiometricMeasurement oxygen = measurements.stream()
+                .filter(m -> m.getType().equals(BiometricMeasurement.OXYGEN_SATURATION))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(local("2025-10-30T16:05:09"), oxygen.getTime().atZone(ZoneId.systemDefault()).toLocalDateTime());
+        assertEquals(97.5, oxygen.getValue());
+
+        BiometricMeasurement pressure = measurements.stream()
+                .filter(m -> m.getType().equals(BiometricMeasurement.BLOOD_PRESSURE))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(120.0, pressure.getValue());
+        assertEquals(80.0, pressure.getDiastolic());
+    }
+
+    private static LocalDateTime local(String isoTime) {
+        return LocalDateTime.parse(isoTime);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.SampleResolution;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BiometricRetentionServiceTest {
+
+    @Test
+    void minuteCompactionKeepsEverySampleOfClientFormatRecords() {
+        BiometricData data = day(
+                new BiometricData.HeartRateRecord(List.of(60L, 62L, 64L, 66L, 68L), "2025-08-01 10:00:00", "2025-08-01 10:05:00"),
+                new BiometricData.HeartRateRecord(List.of(90L, 110L), "2025-08-01 10:05:00", "2025-08-01 10:07:00"));
+
+        BiometricRetentionService.HeartRateCompaction compaction =
+                BiometricRetentionService.aggregateHeartRate(data, ChronoUnit.MINUTES);
+
+        assertTrue(compaction.unreadable().isEmpty());
+        assertEquals(7, compaction.aggregates().size());
+        assertLossless(List.of(60L, 62L, 64L, 66L, 68L, 90L, 110L), compaction.aggregates());
+        assertEquals("2025-08-01 10:00:00", compaction.aggregates().get(0).getStartTime());
+    }
+
+    @Test
+    void hourCompactionOfMinuteAggregatesKeepsCountsAndExtremes() {
+        BiometricData data = day(
+                new BiometricData.HeartRateRecord(List.of(60L, 62L, 64L, 66L, 68L), "2025-08-01 10:00:00", "2025-08-01 10:05:00"),
+                new BiometricData.HeartRateRecord(List.of(90L, 110L), "2025-08-01 11:05:00", "2025-08-01 11:07:00"));
+        data.setHeartRateAggregates(BiometricRetentionService.aggregateHeartRate(data, ChronoUnit.MINUTES).aggregates());
+        data.setHeartRate(null);
+
+        List<BiometricData.HeartRateAggregate> hours =
+                BiometricRetentionService.aggregateHeartRate(data, ChronoUnit.HOURS).aggregates();
+
+        assertEquals(2, hours.size());
+        assertLossless(List.of(60L, 62L, 64L, 66L, 68L, 90L, 110L), hours);
+        assertEquals("2025-08-01 10:00:00", hours.get(0).getStartTime());
+        assertEquals("2025-08-01 11:06:00", hours.get(1).getEndTime());
+    }
+
+    @Test
+    void unreadableRecordsStayInHeartRate() {
+        BiometricData.HeartRateRecord unreadable = new BiometricData.HeartRateRecord(List.of(70L, 71L), "10h00", "10h05");
+        BiometricData data = day(
+                new BiometricData.HeartRateRecord(List.of(60L, 62L), "2025-08-01 10:00:00", "2025-08-01 10:02:00"),
+                unreadable);
+
+        Document update = BiometricRetentionService.compaction(data, SampleResolution.MINUTE).getUpdateObject();
+
+        Document set = update.get("$set", Document.class);
+        assertEquals(List.of(unreadable), set.get("heartRate"));
+        assertEquals(2, ((List<?>) set.get("heartRateAggregates")).size());
+        assertFalse(update.containsKey("$unset") && update.get("$unset", Document.class).containsKey("heartRate"));
+    }
+
+    @Test
+    void heartRateIsRemovedOnlyWhenEverySampleWasAggregated() {
+        BiometricData data = day(
+                new BiometricData.HeartRateRecord(List.of(60L, 62L), "2025-08-01 10:00:00", "2025-08-01 10:02:00"));
+
+        Document update = BiometricRetentionService.compaction(data, SampleResolution.MINUTE).getUpdateObject();
+
+        assertTrue(update.get("$unset", Document.class).containsKey("heartRate"));
+        assertFalse(update.get("$set", Document.class).containsKey("heartRate"));
+    }
+
+    @Test
+    void unreadableAggregatesAreKeptAsIs() {
+        BiometricData.HeartRateAggregate unreadable = new BiometricData.HeartRateAggregate("10h00", "10h01", 3L, 60L, 70L, 65.0);
+        BiometricData data = day();
+        data.setHeartRateAggregates(List.of(
+                new BiometricData.HeartRateAggregate("2025-08-01 10:00:00", "2025-08-01 10:00:50", 2L, 60L, 62L, 61.0),
+                unreadable));
+
+        List<BiometricData.HeartRateAggregate> hours =
+                BiometricRetentionService.aggregateHeartRate(data, ChronoUnit.HOURS).aggregates();
+
+        assertEquals(2, hours.size());
+        assertEquals(2L, hours.get(0).getCount());
+        assertEquals(unreadable, hours.get(1));
+    }
+
+    @Test
+    void stepCompactionKeepsTotalAndUnreadableIntervals() {
+        BiometricData.StepRecord unreadable = new BiometricData.StepRecord(7L, null, "2025-08-01 10:30:00");
+        List<BiometricData.StepRecord> steps = List.of(
+                new BiometricData.StepRecord(100L, "2025-08-01 10:00:00", "2025-08-01 10:15:00"),
+                new BiometricData.StepRecord(50L, "2025-08-01 10:15:00", "2025-08-01 10:30:00"),
+                unreadable);
+
+        List<BiometricData.StepRecord> hours = BiometricRetentionService.aggregateSteps(steps, ChronoUnit.HOURS);
+
+        assertEquals(2, hours.size());
+        assertEquals(new BiometricData.StepRecord(150L, "2025-08-01 10:00:00", "2025-08-01 10:30:00"), hours.get(0));
+        assertEquals(unreadable, hours.get(1));
+    }
+
+    private static BiometricData day(BiometricData.HeartRateRecord... heartRate) {
+        BiometricData data = new BiometricData();
+        data.setDate("2025-08-01");
+        data.setHeartRate(new ArrayList<>(List.of(heartRate)));
+        return data;
+    }
+
+    private static void assertLossless(List<Long> samples, List<BiometricData.HeartRateAggregate> aggregates) {
+        assertEquals(samples.size(), aggregates.stream().mapToLong(BiometricData.HeartRateAggregate::getCount).sum());
+        assertEquals(samples.stream().mapToLong(Long::longValue).sum(),
+                aggregates.stream().mapToDouble(a -> a.getAvg() * a.getCount()).sum(), 1e-9);
+        assertEquals(samples.stream().mapToLong(Long::longValue).min().orElseThrow(),
+                aggregates.stream().mapToLong(BiometricData.HeartRateAggregate::getMin).min().orElseThrow());
+        assertEquals(samples.stream().mapToLong(Long::longValue).max().orElseThrow(),
+                aggregates.stream().mapToLong(BiometricData.HeartRateAggregate::getMax).max().orElseThrow());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.InMemoryMongo;
+import com.example.healthsync.support.TestServices;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class HealthSyncServiceTest {
+
+    private static final String EMAIL = "patient@example.com";
+    private static final String DATE = "2025-10-30";
+
+    private InMemoryMongo mongo;
+    private ExecutorService executor;
+    private BiometricDataService biometricDataService;
+    private HealthSyncService service;
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        executor = Executors.newSingleThreadExecutor();
+        biometricDataService = spy(TestServices.biometricDataService(mongo, executor));
+        service = new HealthSyncService(mongo.template(), biometricDataService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        mongo.close();
+    }
+
+    @Test
+    void replayedDeltaIsStoredOnce() {
+        service.ingestDelta(delta("16:00:00", "16:05:00"));
+        service.ingestDelta(delta("16:00:00", "16:05:00"));
+
+        assertEquals(List.of("2025-10-30 16:00:00", "2025-10-30 16:05:00"), storedStepEnds());
+        assertEquals(Instant.parse("2025-10-30T16:05:00Z"), service.getSyncState(EMAIL).getWatermarks().get("steps"));
+    }
+
+    @Test
+    void retryAfterACrashBeforeTheWatermarkMovedIsStoredOnce() {
+        service.getSyncState(EMAIL);
+        // Premier essai : l'ajout est écrit, l'instance s'arrête avant d'avancer le point de reprise
+        biometricDataService.appendDays(EMAIL, delta("16:00:00", "16:05:00").getDailyData());
+
+        service.ingestDelta(delta("16:00:00", "16:05:00"));
+
+        assertEquals(List.of("2025-10-30 16:00:00", "2025-10-30 16:05:00"), storedStepEnds());
+        assertEquals(Instant.parse("2025-10-30T16:05:00Z"), service.getSyncState(EMAIL).getWatermarks().get("steps"));
+    }
+
+    @Test
+    void retryInterleavedWithTheOriginalUploadIsStoredOnce() {
+        service.getSyncState(EMAIL);
+        // L'envoi d'origine a lu le point de reprise ; son nouvel essai passe entièrement avant son écriture
+        AtomicBoolean retried = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (retried.compareAndSet(false, true)) {
+                service.ingestDelta(delta("16:00:00", "16:05:00", "16:10:00"));
+            }
+            return invocation.callRealMethod();
+        }).when(biometricDataService).appendDays(any(), anyList());
+
+        service.ingestDelta(delta("16:00:00", "16:05:00", "16:10:00"));
+
+        assertEquals(List.of("2025-10-30 16:00:00", "2025-10-30 16:05:00", "2025-10-30 16:10:00"), storedStepEnds());
+        assertEquals(Instant.parse("2025-10-30T16:10:00Z"), service.getSyncState(EMAIL).getWatermarks().get("steps"));
+    }
+
+    /**
+     * Un enregistrement de pas par heure de fin, chacun sur les 5 minutes précédentes
+     */
+    private static HealthData delta(String... ends) {
+        List<BiometricData.StepRecord> steps = new ArrayList<>();
+        for (String end : ends) {
+            String start = LocalTime.parse(end).minusMinutes(5).toString() + ":00";
+            steps.add(new BiometricData.StepRecord(100L, DATE + " " + start, DATE + " " + end));
+        }
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(DATE);
+        day.setSteps(steps);
+        HealthData healthData = new HealthData();
+        healthData.setEmail(EMAIL);
+        healthData.setDailyData(new ArrayList<>(List.of(day)));
+        return healthData;
+    }
+
+    private List<String> storedStepEnds() {
+        BiometricData stored = mongo.template().findOne(
+                Query.query(Criteria.where("email").is(EMAIL).and("date").is(DATE)), BiometricData.class);
+        return stored.getSteps().stream().map(BiometricData.StepRecord::getEndTime).sorted().toList();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricIngestResult;
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IngestQueueServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<IngestQueueService> started = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (IngestQueueService queue : started) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void journaledUploadsAreReplayedExactlyOnceAfterRestart() throws Exception {
+        // MongoDB indisponible : les envois restent dans le journal jusqu'à l'arrêt
+        BiometricDataService unavailable = mock(BiometricDataService.class);
+        when(unavailable.saveDays(any(), anyList())).thenThrow(new IllegalStateException("MongoDB indisponible"));
+        IngestQueueService first = start(unavailable, 100);
+        first.enqueue(upload("alice@example.com", "2025-10-01", 1000));
+        first.enqueue(upload("bob@example.com", "2025-10-01", 2000));
+        first.enqueue(upload("alice@example.com", "2025-10-02", 3000));
+        verify(unavailable, timeout(5000).atLeastOnce()).saveDays(any(), anyList());
+        first.stop();
+
+        assertEquals(3, files(".json").size());
+        assertTrue(files(".tmp").isEmpty());
+
+        Recorder recorder = new Recorder();
+        start(recorder.service, 100);
+        awaitUntil(() -> files(".json").isEmpty());
+
+        assertEquals(List.of(1000, 3000), recorder.steps("alice@example.com"));
+        assertEquals(List.of(2000), recorder.steps("bob@example.com"));
+
+        // Journal vide : un nouveau redémarrage ne rejoue rien
+        BiometricDataService afterReplay = mock(BiometricDataService.class);
+        start(afterReplay, 100);
+        Thread.sleep(200);
+        verify(afterReplay, never()).saveDays(any(), anyList());
+    }
+
+    @Test
+    void uploadsOfOneUserAreSavedInReceptionOrder() throws Exception {
+        Recorder recorder = new Recorder();
+        IngestQueueService queue = start(recorder.service, 1000);
+
+        List<String> users = List.of("alice@example.com", "bob@example.com", "carol@example.com", "dave@example.com");
+        for (int i = 0; i < 20; i++) {
+            for (String user : users) {
+                // Même jour à chaque envoi : le dernier reçu doit être écrit en dernier
+                queue.enqueue(upload(user, "2025-10-01", i));
+            }
+        }
+        awaitUntil(() -> files(".json").isEmpty());
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        for (String user : users) {
+            assertEquals(expected, recorder.steps(user), user);
+        }
+    }
+
+    @Test
+    void fullJournalRefusesUploadsUntilItDrains() throws Exception {
+        CountDownLatch mongoBack = new CountDownLatch(1);
+        BiometricDataService blocked = mock(BiometricDataService.class);
+        when(blocked.saveDays(any(), anyList())).thenAnswer(invocation -> {
+            mongoBack.await();
+            return new BiometricIngestResult();
+        });
+        IngestQueueService queue = start(blocked, 2);
+
+        assertTrue(queue.enqueue(upload("alice@example.com", "2025-10-01", 1)));
+        assertTrue(queue.enqueue(upload("bob@example.com", "2025-10-01", 2)));
+        assertFalse(queue.enqueue(upload("carol@example.com", "2025-10-01", 3)));
+        assertEquals(2, files(".json").size());
+
+        mongoBack.countDown();
+        awaitUntil(() -> files(".json").isEmpty());
+        assertTrue(queue.enqueue(upload("carol@example.com", "2025-10-01", 3)));
+    }
+
+    @Test
+    void refusedDaysAreSetAsideAndNeverReplayed() throws Exception {
+        BiometricDataService partial = mock(BiometricDataService.class);
+        when(partial.saveDays(any(), anyList())).thenAnswer(invocation -> {
+            BiometricIngestResult result = new BiometricIngestResult();
+            result.getFailures().add(new BiometricIngestResult.DayFailure("2025-10-02", "document trop volumineux"));
+            return result;
+        });
+        IngestQueueService queue = start(partial, 100);
+        HealthData healthData = upload("alice@example.com", "2025-10-01", 1000);
+        healthData.getDailyData().add(day("2025-10-02", 2000));
+        queue.enqueue(healthData);
+        awaitUntil(() -> files(".json").isEmpty());
+        queue.stop();
+
+        List<Path> failed = files(".failed");
+        assertEquals(1, failed.size());
+        HealthData setAside = objectMapper.readValue(failed.get(0).toFile(), HealthData.class);
+        assertEquals("alice@example.com", setAside.getEmail());
+        assertEquals(List.of("2025-10-02"), setAside.getDailyData().stream().map(HealthData.DailyData::getDate).toList());
+
+        // Redémarrage : le .failed n'est pas rejoué et sa séquence n'est pas réattribuée
+        BiometricDataService unavailable = mock(BiometricDataService.class);
+        when(unavailable.saveDays(any(), anyList())).thenThrow(new IllegalStateException("MongoDB indisponible"));
+        IngestQueueService restarted = start(unavailable, 100);
+        Thread.sleep(200);
+        verify(unavailable, never()).saveDays(any(), anyList());
+
+        restarted.enqueue(upload("alice@example.com", "2025-10-03", 3000));
+        String failedName = failed.get(0).getFileName().toString();
+        String entryName = files(".json").get(0).getFileName().toString();
+        assertTrue(entryName.substring(0, 19).compareTo(failedName.substring(0, 19)) > 0);
+        assertTrue(Files.exists(failed.get(0)));
+    }
+
+    @Test
+    void interruptedAndUnreadableEntriesAreNotReplayed() throws Exception {
+        // Écriture interrompue avant le renommage (pas de 202 envoyé) et entrée illisible
+        Files.writeString(directory.resolve("0000000000000000001.json.tmp"), "{\"email\":\"alice@exa");
+        Files.writeString(directory.resolve("0000000000000000002.json"), "pas du json");
+
+        BiometricDataService service = mock(BiometricDataService.class);
+        start(service, 100);
+        Thread.sleep(200);
+
+        verify(service, never()).saveDays(any(), anyList());
+        assertTrue(files(".tmp").isEmpty());
+        assertTrue(files(".json").isEmpty());
+        assertEquals(1, files(".corrupt").size());
+    }
+
+    private IngestQueueService start(BiometricDataService biometricDataService, int maxEntries) throws IOException {
+        IngestQueueService queue = new IngestQueueService(
+                biometricDataService, new IngestMetrics(new SimpleMeterRegistry()), objectMapper);
+        ReflectionTestUtils.setField(queue, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(queue, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(queue, "maxBytes", 1_048_576L);
+        ReflectionTestUtils.setField(queue, "workers", 4);
+        ReflectionTestUtils.setField(queue, "batchEntries", 16);
+        ReflectionTestUtils.setField(queue, "retryDelayMs", 20L);
+        queue.start();
+        started.add(queue);
+        return queue;
+    }
+
+    private List<Path> files(String suffix) {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(file -> file.getFileName().toString().endsWith(suffix)).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Journal d'ingestion non vidé");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static HealthData upload(String email, String date, int steps) {
+        HealthData healthData = new HealthData();
+        healthData.setEmail(email);
+        healthData.setDailyData(new ArrayList<>(List.of(day(date, steps))));
+        return healthData;
+    }
+
+    private static HealthData.DailyData day(String date, int steps) {
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date);
+        day.setTotalSteps(steps);
+        return day;
+    }
+
+    /**
+     * Pas de MongoDB : mémorise les pas de chaque jour écrit, par utilisateur et dans l'ordre d'écriture
+     */
+    private static class Recorder {
+
+        private final Map<String, List<Integer>> written = new ConcurrentHashMap<>();
+        private final BiometricDataService service = mock(BiometricDataService.class);
+
+        @SuppressWarnings("unchecked")
+        Recorder() {
+            when(service.saveDays(any(), anyList())).thenAnswer(invocation -> {
+                String email = invocation.getArgument(0);
+                List<HealthData.DailyData> days = invocation.getArgument(1);
+                List<Integer> steps = written.computeIfAbsent(email, key -> Collections.synchronizedList(new ArrayList<>()));
+                days.forEach(day -> steps.add(day.getTotalSteps()));
+                return new BiometricIngestResult();
+            });
+        }
+
+        List<Integer> steps(String email) {
+            return written.getOrDefault(email, List.of());
+        }
+    }
+}
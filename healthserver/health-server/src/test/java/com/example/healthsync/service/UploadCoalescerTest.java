@@ -0,0 +1,49 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestWriteMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadCoalescerTest {
+
+    @Test
+    void everyUploadOfTheWindowFailsWhenTheWriteThrowsAnError() throws Exception {
+        BiometricDataService biometricDataService = mock(BiometricDataService.class);
+        when(biometricDataService.saveDays(any(), anyList())).thenThrow(new StackOverflowError());
+        UploadCoalescer coalescer = new UploadCoalescer(biometricDataService, mock(IngestMetrics.class));
+        ReflectionTestUtils.setField(coalescer, "window", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(coalescer, "writeMode", IngestWriteMode.REPLACE);
+
+        CompletableFuture<?> first = CompletableFuture.runAsync(() -> coalescer.save(upload("2025-10-30")));
+        Thread.sleep(100);
+        CompletableFuture<?> second = CompletableFuture.runAsync(() -> coalescer.save(upload("2025-10-31")));
+
+        for (CompletableFuture<?> upload : List.of(first, second)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> upload.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failure.getCause());
+        }
+    }
+
+    private static HealthData upload(String date) {
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date);
+        HealthData healthData = new HealthData();
+        healthData.setEmail("patient@example.com");
+        healthData.setDailyData(List.of(day));
+        return healthData;
+    }
+}
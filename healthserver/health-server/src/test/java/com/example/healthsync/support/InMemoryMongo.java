@@ -0,0 +1,56 @@
+package com.example.healthsync.support;
+
+import com.example.healthsync.config.MongoConversionsConfig;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+/**
+ * MongoDB en mémoire (mongo-java-server) avec le convertisseur de l'application (MongoConversionsConfig)
+ */
+public class InMemoryMongo implements AutoCloseable {
+
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+    private final MongoClient client;
+    private final MongoTemplate mongoTemplate;
+    private final MongoRepositoryFactory repositories;
+
+    public InMemoryMongo() {
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        SimpleMongoClientDatabaseFactory databaseFactory = new SimpleMongoClientDatabaseFactory(client, "healthsync_test");
+
+        MongoCustomConversions conversions = MongoConversionsConfig.customConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        mongoTemplate = new MongoTemplate(databaseFactory, converter);
+        repositories = new MongoRepositoryFactory(mongoTemplate);
+    }
+
+    public MongoTemplate template() {
+        return mongoTemplate;
+    }
+
+    public <T> T repository(Class<T> repositoryInterface) {
+        return repositories.getRepository(repositoryInterface);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.healthsync.support;
+
+import com.example.healthsync.model.IngestWriteMode;
+import com.example.healthsync.model.StorageBackend;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.BiometricMeasurementService;
+import com.example.healthsync.service.BiometricRollupService;
+import com.example.healthsync.service.IngestMetrics;
+import com.example.healthsync.service.TodayDataCache;
+import com.example.healthsync.service.VitalAnomalyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Services réels branchés sur InMemoryMongo ; les traitements annexes (rollups, alertes, time-series) sont simulés
+ */
+public final class TestServices {
+
+    private TestServices() {
+    }
+
+    /**
+     * Réglages par défaut de bootstrap.properties, écriture séquentielle
+     */
+    public static BiometricDataService biometricDataService(InMemoryMongo mongo, ExecutorService executor) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BiometricDataService service = new BiometricDataService(
+                mongo.repository(BiometricDataRepository.class),
+                mongo.template(),
+                mock(BiometricMeasurementService.class),
+                mock(BiometricRollupService.class),
+                new TodayDataCache(meterRegistry, 100, Duration.ofMinutes(5)),
+                mock(VitalAnomalyService.class),
+                new IngestMetrics(meterRegistry),
+                executor);
+        ReflectionTestUtils.setField(service, "writeMode", IngestWriteMode.REPLACE);
+        ReflectionTestUtils.setField(service, "storageBackend", StorageBackend.DOCUMENT);
+        ReflectionTestUtils.setField(service, "parallelThreads", 1);
+        ReflectionTestUtils.setField(service, "chunkDays", 7);
+        return service;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.healthsync.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeltaVarintCodecTest {
+
+    static Stream<Arguments> series() {
+        return Stream.of(
+                Arguments.of("vide", new long[0]),
+                Arguments.of("une valeur", new long[]{72}),
+                Arguments.of("BPM stables", new long[]{72, 72, 73, 72, 71, 71}),
+                Arguments.of("deltas négatifs", new long[]{180, 150, 90, 60, 45}),
+                Arguments.of("valeurs négatives", new long[]{-5, -1, -300, 0, 7}),
+                Arguments.of("grands écarts", new long[]{0, 1_000_000_000_000L, -1_000_000_000_000L, 3}),
+                Arguments.of("bornes de long", new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0, Long.MIN_VALUE, Long.MAX_VALUE}));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("series")
+    void decodesWhatWasEncoded(String name, long[] values) {
+        assertArrayEquals(values, DeltaVarintCodec.decode(DeltaVarintCodec.encode(values)));
+    }
+
+    @Test
+    void stableHeartRateTakesOneBytePerSample() {
+        long[] values = {72, 72, 73, 72, 71, 71, 72, 72};
+
+        // version + nombre de valeurs + premier BPM sur 2 octets + 1 octet par delta
+        assertEquals(1 + 1 + 2 + 7, DeltaVarintCodec.encode(values).length);
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarintCodec.decode(new byte[]{2, 0}));
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarintCodec.decode(new byte[0]));
+    }
+}
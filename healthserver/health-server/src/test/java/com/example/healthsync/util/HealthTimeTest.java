@@ -0,0 +1,62 @@
+package com.example.healthsync.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HealthTimeTest {
+
+    @AfterEach
+    void resetZone() {
+        HealthTime.useZone(ZoneOffset.UTC);
+    }
+
+    @Test
+    void parsesTheClientFormatInTheConfiguredZone() {
+        HealthTime.useZone(ZoneId.of("Europe/Paris"));
+        Instant expected = Instant.parse("2025-10-30T15:05:09Z");
+
+        assertEquals(expected, HealthTime.parse("2025-10-30 16:05:09"));
+        assertEquals(expected, HealthTime.parse("2025-10-30T16:05:09"));
+    }
+
+    @Test
+    void parsesIsoWithOffset() {
+        assertEquals(Instant.parse("2025-10-30T14:05:09Z"), HealthTime.parse("2025-10-30T16:05:09+02:00"));
+    }
+
+    @Test
+    void rejectsUnreadableTimes() {
+        assertNull(HealthTime.parse(null));
+        assertNull(HealthTime.parse(""));
+        assertNull(HealthTime.parse("30/10/2025 16:05"));
+        assertNull(HealthTime.parse("2025-10-30 25:00:00"));
+    }
+
+    @Test
+    void formatsInTheClientFormat() {
+        assertEquals("2025-10-30 16:05:09", HealthTime.format(HealthTime.parse("2025-10-30 16:05:09")));
+    }
+
+    @Test
+    void machineTimeZoneDoesNotShiftTimes() {
+        TimeZone machineZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            Instant stored = HealthTime.parse("2025-10-30 16:05:09");
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+
+            assertEquals(Instant.parse("2025-10-30T16:05:09Z"), stored);
+            assertEquals("2025-10-30 16:05:09", HealthTime.format(stored));
+        } finally {
+            TimeZone.setDefault(machineZone);
+        }
+    }
+}
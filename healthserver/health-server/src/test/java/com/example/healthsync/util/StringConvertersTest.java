@@ -0,0 +1,47 @@
+package com.example.healthsync.util;
+
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class StringConvertersTest {
+
+    private final TimeStringConverter timeConverter = new TimeStringConverter();
+    private final DecimalStringConverter decimalConverter = new DecimalStringConverter();
+
+    @Test
+    void clientFormatTimeIsStoredAsDateAndReadBackUnchanged() {
+        Object stored = timeConverter.write("2025-10-30 16:05:09", null);
+
+        assertInstanceOf(Date.class, stored);
+        assertEquals("2025-10-30 16:05:09", timeConverter.read(stored, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2025-10-30T16:05:09", "2025-10-30T16:05:09+02:00", "2025-10-30 16:05:09.250", "16:05"})
+    void otherTimesAreReadBackUnchanged(String time) {
+        assertEquals(time, timeConverter.read(timeConverter.write(time, null), null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.00", "3.40", "12", "0.5", "-1.250"})
+    void decimalsKeepTheirTrailingZeros(String value) {
+        Object stored = decimalConverter.write(value, null);
+
+        assertInstanceOf(Decimal128.class, stored);
+        assertEquals(value, decimalConverter.read(stored, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"3,40", "1e3", "abc", " 2.5"})
+    void nonCanonicalDecimalsAreStoredAsText(String value) {
+        assertEquals(value, decimalConverter.write(value, null));
+        assertEquals(value, decimalConverter.read(value, null));
+    }
+}
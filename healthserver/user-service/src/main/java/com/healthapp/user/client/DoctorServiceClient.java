@@ -3,6 +3,7 @@ package com.healthapp.user.client;
 import com.healthapp.user.dto.response.CancelAppointmentRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,8 +26,18 @@ public interface DoctorServiceClient {
     @PostMapping("/api/doctors/appointments/from-patient")
     Map<String, Object> createAppointmentFromPatient(@RequestBody Map<String, Object> request);
 
+    /**
+     * Page de rendez-vous d'un patient (plus récents d'abord) ; curseur de la page suivante dans l'en-tête X-Next-Cursor
+     */
     @GetMapping("/api/doctors/appointments/patient/{patientId}")
-    List<Map<String, Object>> getPatientAppointments(@PathVariable String patientId);
+    ResponseEntity<List<Map<String, Object>>> getPatientAppointments(
+            @PathVariable("patientId") String patientId,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit
+    );
 
     /**
      * Cancel an appointment for a patient
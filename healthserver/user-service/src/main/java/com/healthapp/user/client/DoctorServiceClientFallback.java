@@ -2,6 +2,7 @@ package com.healthapp.user.client;
 
 import com.healthapp.user.dto.response.CancelAppointmentRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
@@ -26,9 +27,10 @@ public class DoctorServiceClientFallback implements DoctorServiceClient {
     }
 
     @Override
-    public List<Map<String, Object>> getPatientAppointments(String patientId) {
+    public ResponseEntity<List<Map<String, Object>>> getPatientAppointments(String patientId, String status, String from,
+                                                                            String to, String cursor, Integer limit) {
         log.error("🔴 Doctor Service unavailable - Cannot fetch appointments for patient: {}", patientId);
-        return Collections.emptyList();
+        return ResponseEntity.ok(Collections.emptyList());
     }
 
     @Override
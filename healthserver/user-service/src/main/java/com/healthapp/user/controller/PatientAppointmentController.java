@@ -3,17 +3,20 @@ package com.healthapp.user.controller;
 import com.healthapp.user.dto.request.AppointmentRequest;
 import com.healthapp.user.dto.response.ApiResponse;
 import com.healthapp.user.dto.response.AppointmentResponse;
+import com.healthapp.user.dto.response.CursorPage;
 import com.healthapp.user.security.SecurityHelper;
 import com.healthapp.user.security.CustomUserPrincipal;
 import com.healthapp.user.service.AppointmentClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -43,15 +46,29 @@ public class PatientAppointmentController {
         return ResponseEntity.ok(ApiResponse.success("Rendez-vous créé avec succès", response));
     }
 
+    /**
+     * Rendez-vous du patient, plus récents d'abord ; par pages si limit ou cursor est fourni (curseur de la page suivante dans X-Next-Cursor)
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getMyAppointments(Authentication auth) {
+    public ResponseEntity<ApiResponse<List<AppointmentResponse>>> getMyAppointments(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication auth) {
         String userId = securityHelper.getUserId(auth);
 
         log.info("📅 Patient {} demande ses rendez-vous", securityHelper.getUserEmail(auth));
 
-        List<AppointmentResponse> appointments = appointmentService.getPatientAppointments(userId);
+        CursorPage<AppointmentResponse> appointments = appointmentService.getPatientAppointments(
+                userId, status, from, to, cursor, limit);
 
-        return ResponseEntity.ok(ApiResponse.success("Rendez-vous récupérés avec succès", appointments));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (appointments.getNextCursor() != null) {
+            response.header(AppointmentClientService.NEXT_CURSOR_HEADER, appointments.getNextCursor());
+        }
+        return response.body(ApiResponse.success("Rendez-vous récupérés avec succès", appointments.getContent()));
     }
 
     @PostMapping("/{appointmentId}/cancel")
@@ -4,13 +4,17 @@ import com.healthapp.user.client.DoctorServiceClient;
 import com.healthapp.user.dto.request.AppointmentRequest;
 import com.healthapp.user.dto.response.AppointmentResponse;
 import com.healthapp.user.dto.response.CancelAppointmentRequest;
+import com.healthapp.user.dto.response.CursorPage;
 import com.healthapp.user.entity.User;
 import com.healthapp.user.repository.UserRepository;
 import com.healthapp.user.security.CustomUserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +25,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AppointmentClientService {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final DoctorServiceClient doctorServiceClient;
     private final UserRepository userRepository;
 
@@ -59,13 +65,25 @@ public class AppointmentClientService {
         }
     }
     /**
-     * Get all appointments for a patient (from doctor-service)
+     * Get a page of appointments for a patient (from doctor-service)
+     *
+     * ✅ Pagination par clé : le curseur renvoyé par doctor-service (X-Next-Cursor) est transmis tel quel
      */
-    public List<AppointmentResponse> getPatientAppointments(String patientId) {
-        List<Map<String, Object>> appointments = doctorServiceClient.getPatientAppointments(patientId);
-        return appointments.stream()
-                .map(this::mapToAppointmentResponse)
-                .collect(Collectors.toList());
+    public CursorPage<AppointmentResponse> getPatientAppointments(String patientId, String status, LocalDateTime from,
+                                                                  LocalDateTime to, String cursor, Integer limit) {
+        ResponseEntity<List<Map<String, Object>>> response = doctorServiceClient.getPatientAppointments(
+                patientId, status,
+                from != null ? from.toString() : null,
+                to != null ? to.toString() : null,
+                cursor, limit);
+
+        List<Map<String, Object>> appointments = response.getBody() != null ? response.getBody() : Collections.emptyList();
+        return CursorPage.<AppointmentResponse>builder()
+                .content(appointments.stream()
+                        .map(this::mapToAppointmentResponse)
+                        .collect(Collectors.toList()))
+                .nextCursor(response.getHeaders().getFirst(NEXT_CURSOR_HEADER))
+                .build();
     }
 
     /**